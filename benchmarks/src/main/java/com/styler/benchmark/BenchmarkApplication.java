@@ -0,0 +1,51 @@
+package com.styler.benchmark;
+
+import com.styler.StylerBackendApplication;
+import com.styler.model.OrderItem;
+import com.styler.model.ShippingAddress;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against the dev profile's H2 in-memory database, without
+ * the web server, so benchmarks call the services directly.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {}
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(StylerBackendApplication.class)
+                .profiles("dev")
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.styler=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        // Keeps seeding benchmark users fast; PasswordHashingBenchmark measures real costs
+                        "--styler.auth.bcrypt.cost=4");
+    }
+
+    static List<OrderItem> orderItems(int count) {
+        List<OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            OrderItem item = new OrderItem(null, (long) i + 1, "Product " + (i + 1), new BigDecimal("19.99"), 1 + i % 3);
+            item.setProductCategory("clothing");
+            item.setColor("black");
+            item.setSize("M");
+            item.setImageUrl("https://cdn.styler.example/products/" + (i + 1) + ".jpg");
+            items.add(item);
+        }
+        return items;
+    }
+
+    static ShippingAddress shippingAddress() {
+        return new ShippingAddress("Bench", "User", "1 Benchmark Road", "Pune", "MH", "411001");
+    }
+}
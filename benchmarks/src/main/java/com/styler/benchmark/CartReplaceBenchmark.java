@@ -0,0 +1,88 @@
+package com.styler.benchmark;
+
+import com.styler.model.CartItem;
+import com.styler.model.User;
+import com.styler.service.CartService;
+import com.styler.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CartService#replaceCart} by cart size. Each call changes the quantity of one
+ * line, which is what the frontend sends when a shopper edits their cart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartReplaceBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int cartSize;
+
+    /** "jdbc" writes every save through, "write-behind" uses the in-memory store */
+    @Param({"jdbc", "write-behind"})
+    private String cartStore;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private User user;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void start() {
+        System.setProperty("styler.cart.store", cartStore);
+        context = BenchmarkApplication.start();
+        cartService = context.getBean(CartService.class);
+        user = context.getBean(UserService.class)
+                .createUser("cart-" + cartSize + "@bench.styler", "password", "Bench", "User", null);
+        cartService.replaceCart(user, cartItems(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        System.clearProperty("styler.cart.store");
+    }
+
+    @Benchmark
+    public void replaceCart() {
+        cartService.replaceCart(user, cartItems(++round));
+    }
+
+    private List<CartItem> cartItems(int round) {
+        List<CartItem> items = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            CartItem item = new CartItem();
+            item.setProductId((long) i + 1);
+            item.setProductName("Product " + (i + 1));
+            item.setPrice(new BigDecimal("19.99"));
+            item.setQuantity(i == round % cartSize ? 1 + round % 5 : 1);
+            item.setColor("black");
+            item.setSize("M");
+            item.setCategory("clothing");
+            item.setImage("https://cdn.styler.example/products/" + (i + 1) + ".jpg");
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,110 @@
+package com.styler.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.styler.dto.OrderSummary;
+import com.styler.model.Order;
+import com.styler.model.OrderItem;
+import com.styler.model.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mapping and serializing a user's order history, as returned by
+ * {@code GET /api/orders/user/{userId}}. {@link #hashMaps} is the map-per-order
+ * mapping the controller used before the record DTOs. Run with {@code -prof gc}
+ * to compare allocation as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderHistorySerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int orderCount;
+
+    @Param({"3"})
+    private int itemsPerOrder;
+
+    // Same defaults Spring Boot applies to the MVC message converter
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<Order> orders;
+
+    @Setup
+    public void createOrders() throws JsonProcessingException {
+        orders = new ArrayList<>(orderCount);
+        LocalDateTime orderDate = LocalDateTime.of(2024, 6, 1, 12, 0);
+        for (int i = 0; i < orderCount; i++) {
+            Order order = new Order();
+            order.setId((long) i + 1);
+            order.setOrderId("ORD-" + (1000 + i));
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setTotalAmount(new BigDecimal("59.97"));
+            order.setOrderDate(orderDate.minusDays(i));
+            order.setEstimatedDelivery(orderDate.minusDays(i).plusDays(5));
+            order.setShippingAddress(BenchmarkApplication.shippingAddress());
+            List<OrderItem> items = BenchmarkApplication.orderItems(itemsPerOrder);
+            items.forEach(item -> item.setOrder(order));
+            order.setItems(items);
+            orders.add(order);
+        }
+        // Both variants must produce the same bytes for the comparison to mean anything
+        if (!recordDtos().equals(hashMaps())) {
+            throw new IllegalStateException("Record DTO JSON differs from the map-based JSON");
+        }
+    }
+
+    @Benchmark
+    public String recordDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(orders.stream().map(OrderSummary::from).toList());
+    }
+
+    @Benchmark
+    public String hashMaps() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(orders.stream().map(this::buildOrderSummary).collect(Collectors.toList()));
+    }
+
+    private Map<String, Object> buildOrderSummary(Order order) {
+        Map<String, Object> orderMap = new HashMap<>();
+        orderMap.put("id", order.getId());
+        orderMap.put("orderId", order.getOrderId());
+        orderMap.put("status", order.getStatus().toString());
+        orderMap.put("totalAmount", order.getTotalAmount());
+        orderMap.put("createdAt", order.getOrderDate());
+        orderMap.put("estimatedDelivery", order.getEstimatedDelivery());
+        orderMap.put("shippingAddress", order.getShippingAddress());
+        orderMap.put("items", order.getItems().stream().map(item -> {
+            Map<String, Object> itemMap = new HashMap<>();
+            itemMap.put("productId", item.getProductId());
+            itemMap.put("productName", item.getProductName());
+            itemMap.put("quantity", item.getQuantity());
+            itemMap.put("price", item.getPrice());
+            itemMap.put("imageUrl", item.getImageUrl());
+            return itemMap;
+        }).collect(Collectors.toList()));
+        return orderMap;
+    }
+}
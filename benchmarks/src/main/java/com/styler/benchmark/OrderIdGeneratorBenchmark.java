@@ -0,0 +1,48 @@
+package com.styler.benchmark;
+
+import com.styler.service.TimeOrderedOrderIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order id generation under contention. {@link #randomUuid} is the
+ * UUID-based scheme order ids used before {@link TimeOrderedOrderIdGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class OrderIdGeneratorBenchmark {
+
+    private TimeOrderedOrderIdGenerator generator;
+
+    @Setup
+    public void createGenerator() {
+        generator = new TimeOrderedOrderIdGenerator(1);
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return generator.nextOrderId();
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return "ORD-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
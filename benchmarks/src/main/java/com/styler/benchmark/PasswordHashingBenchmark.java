@@ -0,0 +1,65 @@
+package com.styler.benchmark;
+
+import com.styler.service.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login password checks through {@link PasswordHashingService} per BCrypt cost, with more
+ * concurrent callers than hashing threads so the results include queueing. Sample mode
+ * reports percentiles; pick the highest cost whose p0.99 meets the login latency target.
+ * Change the caller count with {@code -t}, e.g. {@code -Djmh.args="PasswordHashing -t 32"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10", "11", "12"})
+    public int cost;
+
+    private PasswordHashingService hashingService;
+    private String storedHash;
+
+    @Setup(Level.Trial)
+    public void start() {
+        hashingService = new PasswordHashingService(new SimpleMeterRegistry(), cost, 0, 10_000, 60_000);
+        storedHash = hashingService.hash(PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        hashingService.shutdown();
+    }
+
+    @Benchmark
+    public boolean login() {
+        return hashingService.matches(PASSWORD, storedHash);
+    }
+
+    @Benchmark
+    public String hash() {
+        return hashingService.hash(PASSWORD);
+    }
+}
@@ -0,0 +1,88 @@
+package com.styler.benchmark;
+
+import com.styler.model.User;
+import com.styler.repository.UserRepository;
+import com.styler.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User lookups by id and email through {@link UserService}, which reads through the
+ * user cache, against the same lookups straight from {@link UserRepository}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    private static final int USERS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private long firstUserId;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+        for (int i = 0; i < USERS; i++) {
+            User user = userService.createUser(email(i), "password", "Bench", "User " + i, null);
+            if (i == 0) {
+                firstUserId = user.getId();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findByIdService() {
+        return userService.findById(firstUserId + nextIndex());
+    }
+
+    @Benchmark
+    public Object findByIdRepository() {
+        return userRepository.findById(firstUserId + nextIndex());
+    }
+
+    @Benchmark
+    public Object findByEmailService() {
+        return userService.findByEmail(email(nextIndex()));
+    }
+
+    @Benchmark
+    public Object findByEmailRepository() {
+        return userRepository.findByEmail(email(nextIndex()));
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % USERS;
+        return next;
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@bench.styler";
+    }
+}
@@ -0,0 +1,249 @@
+package com.styler.benchmark;
+
+import com.styler.StylerBackendApplication;
+import com.styler.model.User;
+import com.styler.service.UserService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * HTTP load test of Tomcat's platform-thread pool against the {@code virtual-threads}
+ * profile at the same connection pool size. Unlike the JMH benchmarks it starts the
+ * application with its web server, once per mode, and drives it over HTTP.
+ *
+ * <p>Every JDBC statement is delayed by {@code db-latency-ms} to stand in for a remote
+ * database. Most clients read carts, which take a pooled connection; the rest read
+ * catalog products, which are served from memory. Both modes run with the pool and
+ * open-in-view settings of application-virtual-threads.properties, so the thread model
+ * is the only difference.
+ *
+ * <p>Needs a Java 21 runtime. From the benchmarks directory:
+ * <pre>
+ * mvn -q package dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/classes:$(cat target/classpath.txt) com.styler.benchmark.VirtualThreadLoadTest \
+ *     cart-clients=400 catalog-clients=50 seconds=20 db-latency-ms=20
+ * </pre>
+ */
+public final class VirtualThreadLoadTest {
+
+    private VirtualThreadLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Integer> options = new HashMap<>(Map.of(
+                "cart-clients", 400,
+                "catalog-clients", 50,
+                "users", 200,
+                "warmup-seconds", 5,
+                "seconds", 20,
+                "db-latency-ms", 20,
+                "pool-size", 20));
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (!options.containsKey(option[0]) || option.length != 2) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + options.keySet());
+            }
+            options.put(option[0], Integer.parseInt(option[1]));
+        }
+        System.out.printf("Java %s, %s%n", Runtime.version(), options);
+
+        for (String mode : List.of("platform", "virtual")) {
+            try (ConfigurableApplicationContext context = start(mode, options)) {
+                run(mode, context, options);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode, Map<String, Integer> options) {
+        long latencyMillis = options.get("db-latency-ms");
+        List<String> profiles = new ArrayList<>(List.of("dev"));
+        if (mode.equals("virtual")) {
+            profiles.add("virtual-threads");
+        }
+        int poolSize = options.get("pool-size");
+        return new SpringApplicationBuilder(StylerBackendApplication.class)
+                .profiles(profiles.toArray(new String[0]))
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new SlowDatabase(latencyMillis)))
+                .run("--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.styler=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--styler.auth.bcrypt.cost=4",
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "--spring.datasource.hikari.minimum-idle=" + poolSize,
+                        "--spring.datasource.hikari.connection-timeout=3000",
+                        "--spring.jpa.open-in-view=false");
+    }
+
+    private static void run(String mode, ConfigurableApplicationContext context, Map<String, Integer> options) throws Exception {
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        UserService userService = context.getBean(UserService.class);
+        long[] userIds = new long[options.get("users")];
+        for (int i = 0; i < userIds.length; i++) {
+            User user = userService.createUser("load-" + UUID.randomUUID() + "@example.com", "password123");
+            userIds[i] = user.getId();
+            for (int item = 0; item < 3; item++) {
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/cart/" + user.getId() + "/items"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"productId\":" + (1 + (i + item) % 50) + ",\"quantity\":1}"))
+                        .build());
+            }
+        }
+
+        drive(client, baseUrl, userIds, options, options.get("warmup-seconds"));
+        Map<String, Result> results = drive(client, baseUrl, userIds, options, options.get("seconds"));
+        for (Map.Entry<String, Result> result : results.entrySet()) {
+            System.out.println(result.getValue().describe(mode, result.getKey(), options.get("seconds")));
+        }
+    }
+
+    private static Map<String, Result> drive(HttpClient client, String baseUrl, long[] userIds,
+                                             Map<String, Integer> options, int seconds) throws Exception {
+        int cartClients = options.get("cart-clients");
+        int clients = cartClients + options.get("catalog-clients");
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                boolean cart = c < cartClients;
+                futures.add(executor.submit(() -> {
+                    Result result = new Result();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        String path = cart
+                                ? "/api/cart/" + userIds[random.nextInt(userIds.length)]
+                                : "/api/products/" + (1 + random.nextInt(50));
+                        long start = System.nanoTime();
+                        int status = send(client, HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .timeout(Duration.ofSeconds(30)).GET().build());
+                        result.record(System.nanoTime() - start, status == 200);
+                    }
+                    return result;
+                }));
+            }
+            Map<String, Result> results = new HashMap<>(Map.of("cart", new Result(), "catalog", new Result()));
+            for (int c = 0; c < futures.size(); c++) {
+                results.get(c < cartClients ? "cart" : "catalog").merge(futures.get(c).get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int send(HttpClient client, HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static final class Result {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void merge(Result other) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length, count + other.count));
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        String describe(String mode, String endpoint, int seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return String.format(Locale.ROOT, "%-8s %-7s %8.0f req/s  p50 %7.1f ms  p99 %7.1f ms  max %7.1f ms  errors %d",
+                    mode, endpoint, (double) count / seconds,
+                    millis(sorted, 0.50), millis(sorted, 0.99), count == 0 ? 0 : sorted[count - 1] / 1e6, errors);
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, quantile * sorted.length)] / 1e6;
+        }
+    }
+
+    // Delays every statement execution while it holds its pooled connection, as a remote database would
+    private static final class SlowDatabase implements BeanPostProcessor {
+        private final long latencyMillis;
+
+        SlowDatabase(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+        }
+
+        private <T> T proxy(Class<T> type, T target) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (Statement.class.isAssignableFrom(type) && method.getName().startsWith("execute")) {
+                    Thread.sleep(latencyMillis);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                Class<?> returned = method.getReturnType();
+                if ((returned == Connection.class || Statement.class.isAssignableFrom(returned)) && result != null) {
+                    return proxy(castType(returned), result);
+                }
+                return result;
+            };
+            return type.cast(Proxy.newProxyInstance(VirtualThreadLoadTest.class.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Class<T> castType(Class<?> type) {
+            return (Class<T>) type;
+        }
+    }
+}
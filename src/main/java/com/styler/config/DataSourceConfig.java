@@ -1,7 +1,8 @@
 package com.styler.config;
 
-import javax.sql.DataSource;
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,7 +19,8 @@ public class DataSourceConfig {
     private String databaseUrl;
 
     @Bean
-    public DataSource dataSource() {
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource dataSource() {
         if (databaseUrl == null || databaseUrl.isEmpty()) {
             throw new IllegalStateException("DATABASE_URL environment variable must be set for prod profile.");
         }
@@ -35,11 +37,9 @@ public class DataSourceConfig {
             String username = credentials[0];
             String password = credentials.length > 1 ? credentials[1] : "";
             
-            int port = dbUri.getPort();
-            String dbUrl = "jdbc:postgresql://" + dbUri.getHost() + (port == -1 ? "" : ":" + port) + dbUri.getPath();
-
             return DataSourceBuilder.create()
-                    .url(dbUrl)
+                    .type(HikariDataSource.class)
+                    .url(toJdbcUrl(dbUri))
                     .username(username)
                     .password(password)
                     .driverClassName("org.postgresql.Driver")
@@ -48,4 +48,14 @@ public class DataSourceConfig {
             throw new RuntimeException("Failed to parse DATABASE_URL: " + databaseUrl, e);
         }
     }
+
+    /**
+     * Query parameters such as {@code sslmode} are passed through to the driver unchanged.
+     */
+    static String toJdbcUrl(URI dbUri) {
+        int port = dbUri.getPort();
+        String dbUrl = "jdbc:postgresql://" + dbUri.getHost() + (port == -1 ? "" : ":" + port) + dbUri.getRawPath();
+        String query = dbUri.getRawQuery();
+        return query == null || query.isEmpty() ? dbUrl : dbUrl + "?" + query;
+    }
 }
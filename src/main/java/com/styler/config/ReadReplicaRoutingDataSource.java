@@ -0,0 +1,126 @@
+package com.styler.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out replica connections inside {@code @Transactional(readOnly = true)} work and
+ * primary connections for everything else, including reads outside a transaction.
+ *
+ * <p>Replicas are used round-robin. A replica that fails to give a connection is skipped
+ * for {@code retryIntervalMillis}, and reads fall back to the other replicas or the
+ * primary in the meantime. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the read-only
+ * flag is only set once the transaction has begun, after the transaction manager asked
+ * for a connection.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long retryIntervalMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long retryIntervalMillis) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.retryIntervalMillis = retryIntervalMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!replicas.isEmpty() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (replica.isAvailable()) {
+                    try {
+                        Connection connection = source.get(replica.dataSource);
+                        replicaConnections.increment();
+                        return connection;
+                    } catch (SQLException e) {
+                        replica.markDown();
+                        logger.warn("Read replica unavailable, skipping it for {} ms: {}", retryIntervalMillis, e.getMessage());
+                    }
+                }
+            }
+        }
+        primaryConnections.increment();
+        return source.get(primary);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public long getPrimaryConnectionCount() {
+        return primaryConnections.sum();
+    }
+
+    public long getReplicaConnectionCount() {
+        return replicaConnections.sum();
+    }
+
+    public int getAvailableReplicaCount() {
+        return (int) replicas.stream().filter(Replica::isAvailable).count();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    private final class Replica {
+        private final DataSource dataSource;
+        private volatile long downUntil;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        boolean isAvailable() {
+            return System.currentTimeMillis() >= downUntil;
+        }
+
+        void markDown() {
+            downUntil = System.currentTimeMillis() + retryIntervalMillis;
+        }
+    }
+}
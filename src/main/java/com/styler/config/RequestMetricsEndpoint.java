@@ -0,0 +1,87 @@
+package com.styler.config;
+
+import com.styler.service.RequestMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /actuator/requests}: latency percentiles and statement counts per route, and the
+ * recent slow requests with the SQL they ran. The same meters are in
+ * {@code /actuator/prometheus}.
+ */
+@Component
+@Endpoint(id = "requests")
+public class RequestMetricsEndpoint {
+
+    private final MeterRegistry meterRegistry;
+    private final RequestMetrics requestMetrics;
+
+    public RequestMetricsEndpoint(MeterRegistry meterRegistry, RequestMetrics requestMetrics) {
+        this.meterRegistry = meterRegistry;
+        this.requestMetrics = requestMetrics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> requests() {
+        List<Map<String, Object>> routes = new ArrayList<>();
+        for (Timer timer : meterRegistry.find("styler.requests").timers()) {
+            String method = timer.getId().getTag("method");
+            String route = timer.getId().getTag("route");
+            HistogramSnapshot latency = timer.takeSnapshot();
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("method", method);
+            entry.put("route", route);
+            entry.put("count", latency.count());
+            entry.put("meanMs", latency.mean(TimeUnit.MILLISECONDS));
+            entry.put("maxMs", latency.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : latency.percentileValues()) {
+                entry.put(percentileKey(percentile) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+            }
+            entry.put("statements", summary("styler.requests.statements", method, route));
+            entry.put("entities", summary("styler.requests.entities", method, route));
+            routes.add(entry);
+        }
+        routes.sort(Comparator.comparing((Map<String, Object> entry) -> (Long) entry.get("count")).reversed());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("routes", routes);
+        response.put("slowRequestCount", requestMetrics.getSlowRequestCount());
+        response.put("slowRequests", requestMetrics.getSlowRequests());
+        return response;
+    }
+
+    private Map<String, Object> summary(String name, String method, String route) {
+        DistributionSummary summary = meterRegistry.find(name).tag("method", method).tag("route", route).summary();
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (summary == null) {
+            return values;
+        }
+        HistogramSnapshot snapshot = summary.takeSnapshot();
+        values.put("mean", snapshot.mean());
+        values.put("max", snapshot.max());
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            values.put(percentileKey(percentile), percentile.value());
+        }
+        return values;
+    }
+
+    // 0.5 -> p50, 0.99 -> p99, 0.999 -> p999
+    private static String percentileKey(ValueAtPercentile percentile) {
+        String digits = Double.toString(percentile.percentile()).substring(2);
+        return "p" + (digits.length() == 1 ? digits + "0" : digits);
+    }
+}
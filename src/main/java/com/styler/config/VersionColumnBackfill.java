@@ -0,0 +1,41 @@
+package com.styler.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sets NULL optimistic-lock versions to 0 at startup, once the schema is in place.
+ *
+ * <p>Hibernate's schema update adds a missing {@code version} column as
+ * {@code NOT NULL DEFAULT 0}, but leaves alone a column an earlier release created as
+ * nullable. Rows with a NULL version would be taken for new entities, could not be
+ * updated, and would never change their ETag.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class VersionColumnBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(VersionColumnBackfill.class);
+
+    private static final List<String> VERSIONED_TABLES = List.of("cart_items", "orders");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        for (String table : VERSIONED_TABLES) {
+            int updated = jdbcTemplate.update("UPDATE " + table + " SET version = 0 WHERE version IS NULL");
+            if (updated > 0) {
+                logger.info("Set version to 0 on {} {} rows", updated, table);
+            }
+        }
+    }
+}
@@ -3,10 +3,20 @@ package com.styler.controller;
 import com.styler.model.CartItem;
 import com.styler.model.User;
 import com.styler.service.CartService;
+import com.styler.service.CartSnapshot;
+import com.styler.service.PriceQuote;
+import com.styler.service.PricingService;
+import com.styler.service.ProductCatalogService;
+import com.styler.service.SessionPrincipal;
 import com.styler.service.UserService;
+import com.styler.service.WriteBehindCartStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -28,26 +38,82 @@ public class CartController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PricingService pricingService;
+
+    /**
+     * The cart's lines with an ETag from the cart's version. A poll whose
+     * {@code If-None-Match} still matches gets 304 without the lines being read.
+     */
     @GetMapping("/{userId}")
-    public ResponseEntity<?> getCart(@PathVariable Long userId) {
-        User user = resolveUserOrThrow(userId);
+    public ResponseEntity<?> getCart(@PathVariable Long userId,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                     @AuthenticationPrincipal SessionPrincipal principal) {
+        if (isOtherUser(userId, principal)) {
+            return forbiddenResponse(userId);
+        }
+        User user = resolveUser(userId, principal);
+        if (user == null) {
+            return userNotFoundResponse(userId);
+        }
+
+        if (ifNoneMatch != null) {
+            String current = cartService.getCartTag(user);
+            if (current != null && ETags.matches(ifNoneMatch, ETags.of(current))) {
+                return ETags.notModified(ETags.of(current));
+            }
+        }
+
+        CartSnapshot cart = cartService.getCartSnapshot(user);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(cart.etag()))
+                .cacheControl(ETags.REVALIDATE)
+                .body(cart.items());
+    }
+
+    /**
+     * Current catalog prices for the cart: line totals, subtotal, shipping, tax and total.
+     */
+    @GetMapping("/{userId}/quote")
+    public ResponseEntity<?> getQuote(@PathVariable Long userId,
+                                      @AuthenticationPrincipal SessionPrincipal principal) {
+        if (isOtherUser(userId, principal)) {
+            return forbiddenResponse(userId);
+        }
+        User user = resolveUser(userId, principal);
         if (user == null) {
             return userNotFoundResponse(userId);
         }
 
-        List<CartItem> items = cartService.getCartForUser(user);
-        return ResponseEntity.ok(items);
+        try {
+            PriceQuote quote = pricingService.quote(cartService.getCartForUser(user),
+                    CartItem::getProductId, CartItem::getQuantity,
+                    item -> PricingService.clientProduct(item.getProductId(), item.getProductName(),
+                            item.getCategory(), item.getImage(), item.getPrice()));
+            return ResponseEntity.ok(quote);
+        } catch (PricingService.UnknownProductException e) {
+            return unknownProductResponse(e);
+        }
     }
 
     @PostMapping("/{userId}")
     public ResponseEntity<?> saveCart(@PathVariable Long userId,
-                                      @RequestBody(required = false) List<CartItemPayload> payload) {
-        User user = resolveUserOrThrow(userId);
+                                      @RequestBody(required = false) List<CartItemPayload> payload,
+                                      @AuthenticationPrincipal SessionPrincipal principal) {
+        if (isOtherUser(userId, principal)) {
+            return forbiddenResponse(userId);
+        }
+        User user = resolveUser(userId, principal);
         if (user == null) {
             return userNotFoundResponse(userId);
         }
 
-        List<CartItem> items = mapPayloadToEntities(payload);
+        List<CartItem> items;
+        try {
+            items = mapPayloadToEntities(payload);
+        } catch (PricingService.UnknownProductException e) {
+            return unknownProductResponse(e);
+        }
         cartService.replaceCart(user, items);
 
         Map<String, Object> response = new HashMap<>();
@@ -57,8 +123,12 @@ public class CartController {
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<?> clearCart(@PathVariable Long userId) {
-        User user = resolveUserOrThrow(userId);
+    public ResponseEntity<?> clearCart(@PathVariable Long userId,
+                                       @AuthenticationPrincipal SessionPrincipal principal) {
+        if (isOtherUser(userId, principal)) {
+            return forbiddenResponse(userId);
+        }
+        User user = resolveUser(userId, principal);
         if (user == null) {
             return userNotFoundResponse(userId);
         }
@@ -67,7 +137,113 @@ public class CartController {
         return ResponseEntity.ok(Map.of("success", true));
     }
 
-    private User resolveUserOrThrow(Long userId) {
+    @PostMapping("/{userId}/items")
+    public ResponseEntity<?> addItem(@PathVariable Long userId, @RequestBody CartItemPayload payload,
+                                     @AuthenticationPrincipal SessionPrincipal principal) {
+        if (isOtherUser(userId, principal)) {
+            return forbiddenResponse(userId);
+        }
+        User user = resolveUser(userId, principal);
+        if (user == null) {
+            return userNotFoundResponse(userId);
+        }
+
+        if (payload == null || payload.getProductId() == null || payload.getQuantity() == null || payload.getQuantity() <= 0) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "productId and a positive quantity are required");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        CartItem entity;
+        try {
+            entity = toEntity(payload);
+        } catch (PricingService.UnknownProductException e) {
+            return unknownProductResponse(e);
+        }
+        CartItem item;
+        try {
+            item = cartService.addItem(user, entity);
+        } catch (WriteBehindCartStore.CartFlushException e) {
+            return cartUnavailableResponse(e);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("item", item);
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/{userId}/items/{itemId}")
+    public ResponseEntity<?> updateItem(@PathVariable Long userId, @PathVariable Long itemId,
+                                        @RequestBody CartItemUpdatePayload payload,
+                                        @AuthenticationPrincipal SessionPrincipal principal) {
+        if (isOtherUser(userId, principal)) {
+            return forbiddenResponse(userId);
+        }
+        User user = resolveUser(userId, principal);
+        if (user == null) {
+            return userNotFoundResponse(userId);
+        }
+
+        if (payload == null || payload.getQuantity() == null) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "quantity is required");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        try {
+            Optional<CartItem> item = cartService.updateItemQuantity(user, itemId, payload.getQuantity(), payload.getVersion());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("item", item.orElse(null));
+            response.put("removed", item.isEmpty());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return itemNotFoundResponse(itemId);
+        } catch (WriteBehindCartStore.CartFlushException e) {
+            return cartUnavailableResponse(e);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Cart item " + itemId + " was modified concurrently, reload the cart and retry");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+    }
+
+    @DeleteMapping("/{userId}/items/{itemId}")
+    public ResponseEntity<?> removeItem(@PathVariable Long userId, @PathVariable Long itemId,
+                                        @AuthenticationPrincipal SessionPrincipal principal) {
+        if (isOtherUser(userId, principal)) {
+            return forbiddenResponse(userId);
+        }
+        User user = resolveUser(userId, principal);
+        if (user == null) {
+            return userNotFoundResponse(userId);
+        }
+
+        try {
+            if (!cartService.removeItem(user, itemId)) {
+                return itemNotFoundResponse(itemId);
+            }
+        } catch (WriteBehindCartStore.CartFlushException e) {
+            return cartUnavailableResponse(e);
+        }
+        return ResponseEntity.ok(Map.of("success", true));
+    }
+
+    // A request with a session token may only act on its own user's cart
+    private boolean isOtherUser(Long userId, SessionPrincipal principal) {
+        return principal != null && !principal.userId().equals(userId);
+    }
+
+    private User resolveUser(Long userId, SessionPrincipal principal) {
+        if (principal != null) {
+            // The token is proof enough that the user exists, so skip the lookup
+            return principal.toUserReference();
+        }
         if (userId == null) {
             return null;
         }
@@ -82,6 +258,36 @@ public class CartController {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    private ResponseEntity<Map<String, Object>> forbiddenResponse(Long userId) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", "Session token does not belong to user " + userId);
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+    }
+
+    private ResponseEntity<Map<String, Object>> unknownProductResponse(PricingService.UnknownProductException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        errorResponse.put("productId", e.getProductId());
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
+    // The cached cart couldn't be written first, so the line change was not applied
+    private ResponseEntity<Map<String, Object>> cartUnavailableResponse(WriteBehindCartStore.CartFlushException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    private ResponseEntity<Map<String, Object>> itemNotFoundResponse(Long itemId) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", "Cart item not found with ID: " + itemId);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
     private List<CartItem> mapPayloadToEntities(List<CartItemPayload> payload) {
         if (payload == null || payload.isEmpty()) {
             return Collections.emptyList();
@@ -93,16 +299,20 @@ public class CartController {
                 .collect(Collectors.toList());
     }
 
+    // Name and price come from the catalog; the client's are only used while pricing falls back to them
     private CartItem toEntity(CartItemPayload payload) {
+        ProductCatalogService.CatalogProduct product = pricingService.product(payload.getProductId(),
+                () -> PricingService.clientProduct(payload.getProductId(), payload.getProductName(),
+                        payload.getCategory(), payload.getImage(), payload.getPrice()));
         CartItem item = new CartItem();
-        item.setProductId(payload.getProductId());
-        item.setProductName(payload.getProductName());
+        item.setProductId(product.id());
+        item.setProductName(product.name());
         item.setColor(payload.getColor());
         item.setSize(payload.getSize());
-        item.setCategory(payload.getCategory());
+        item.setCategory(payload.getCategory() != null ? payload.getCategory() : product.category());
         item.setQuantity(payload.getQuantity());
-        item.setImage(payload.getImage());
-        item.setPrice(payload.getPrice() != null ? payload.getPrice() : BigDecimal.ZERO);
+        item.setImage(payload.getImage() != null ? payload.getImage() : product.imageUrl());
+        item.setPrice(product.price());
         return item;
     }
 
@@ -180,4 +390,25 @@ public class CartController {
             this.image = image;
         }
     }
+
+    private static class CartItemUpdatePayload {
+        private Integer quantity;
+        private Long version;
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+
+        public void setVersion(Long version) {
+            this.version = version;
+        }
+    }
 }
@@ -39,13 +39,13 @@ public class DebugController {
         }
     }
 
-    // Get all orders with full details
+    // Get the most recent orders with full details (GET /api/orders/export streams all of them)
     @GetMapping("/orders")
-    public ResponseEntity<?> getAllOrders() {
+    public ResponseEntity<?> getAllOrders(@RequestParam(defaultValue = "100") int limit) {
         try {
-            List<Order> orders = orderService.getAllOrders();
+            List<Order> orders = orderService.getLatestOrders(Math.max(1, Math.min(limit, 1000)));
             Map<String, Object> response = new HashMap<>();
-            response.put("count", orders.size());
+            response.put("count", orderService.countOrders());
             response.put("orders", orders);
             response.put("timestamp", System.currentTimeMillis());
             return ResponseEntity.ok(response);
@@ -61,8 +61,8 @@ public class DebugController {
     public ResponseEntity<?> getDatabaseStats() {
         try {
             Map<String, Object> stats = new HashMap<>();
-            stats.put("totalUsers", userService.getAllUsers().size());
-            stats.put("totalOrders", orderService.getAllOrders().size());
+            stats.put("totalUsers", userService.countUsers());
+            stats.put("totalOrders", orderService.countOrders());
             stats.put("timestamp", System.currentTimeMillis());
             stats.put("status", "Database connected and operational");
             return ResponseEntity.ok(stats);
@@ -0,0 +1,44 @@
+package com.styler.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Strong ETags and {@code If-None-Match} handling for polled resources.
+ */
+final class ETags {
+
+    // Clients may keep a copy but must revalidate it before every use
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {}
+
+    static String of(String value) {
+        return "\"" + value + "\"";
+    }
+
+    /**
+     * True if {@code ifNoneMatch} is {@code *} or lists {@code etag}. The comparison is weak,
+     * as RFC 9110 specifies for {@code If-None-Match}, so {@code W/} prefixes are ignored.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
+}
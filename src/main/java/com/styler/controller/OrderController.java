@@ -1,13 +1,34 @@
 package com.styler.controller;
 
+import com.styler.dto.OrderCreatedResponse;
+import com.styler.dto.OrderDetail;
+import com.styler.dto.OrderHistoryPageResponse;
+import com.styler.dto.OrderSummary;
 import com.styler.model.*;
+import com.styler.service.IdempotencyStore;
+import com.styler.service.OrderExportService;
+import com.styler.service.OrderHistoryPage;
 import com.styler.service.OrderService;
+import com.styler.service.OrderStatusUpdateResult;
+import com.styler.service.PasswordHashingService;
+import com.styler.service.SessionPrincipal;
 import com.styler.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,15 +43,71 @@ public class OrderController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private OrderExportService orderExportService;
+    
+    @Value("${styler.orders.export.token:}")
+    private String configuredExportToken;
+    
+    /**
+     * With an {@code Idempotency-Key} header, a retried request returns the order created by
+     * the first attempt instead of placing a second one. Keys are scoped to the session's user.
+     * Guest checkouts have no session, so their keys are scoped to the normalized email (or
+     * user id) together with the request body's fingerprint: a retry of the same checkout is
+     * deduplicated, while another caller reusing the key gets a separate scope.
+     */
     @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> createOrder(@RequestBody Map<String, Object> request,
+                                         @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                         @AuthenticationPrincipal SessionPrincipal principal) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return placeOrder(request, principal);
+        }
+        if (idempotencyKey.length() > IdempotencyStore.MAX_KEY_LENGTH) {
+            return badRequest(IdempotencyStore.HEADER + " must be at most " + IdempotencyStore.MAX_KEY_LENGTH + " characters");
+        }
+        
+        try {
+            String scope = principal != null
+                    ? "POST /api/orders:" + principal.userId()
+                    : "POST /api/orders:guest:" + guestIdentity(request) + ":" + idempotencyStore.fingerprint(request);
+            return idempotencyStore.execute(scope, idempotencyKey, request, () -> placeOrder(request, principal));
+        } catch (IdempotencyStore.KeyReusedException e) {
+            return errorResponse(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+        } catch (IdempotencyStore.StillProcessingException e) {
+            return errorResponse(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+    
+    // The caller a guest checkout is for, as stable across retries as the request allows
+    private static String guestIdentity(Map<String, Object> request) {
+        Object email = request.get("userEmail");
+        if (email instanceof String value && !value.isBlank()) {
+            return "email:" + value.trim().toLowerCase(Locale.ROOT);
+        }
+        Object userId = request.get("userId");
+        return userId != null ? "user:" + userId : "anonymous";
+    }
+    
+    private ResponseEntity<?> placeOrder(Map<String, Object> request, SessionPrincipal principal) {
         try {
            
             User user = null;
             
             String requestEmail = request.containsKey("userEmail") ? (String) request.get("userEmail") : null;
             Long requestUserId = request.containsKey("userId") ? Long.valueOf(request.get("userId").toString()) : null;
-            user = resolveUser(requestUserId, requestEmail, request);
+            if (principal != null) {
+                if (requestUserId != null && !requestUserId.equals(principal.userId())) {
+                    return errorResponse(HttpStatus.FORBIDDEN, "Session token does not belong to user " + requestUserId);
+                }
+                // The token identifies the user, so no lookup or guest account is needed
+                user = principal.toUserReference();
+            } else {
+                user = resolveUser(requestUserId, requestEmail, request);
+            }
             if (user == null) {
                 return badRequest("User not found. Please log in or register before placing an order.");
             }
@@ -44,9 +121,11 @@ public class OrderController {
             
             for (Map<String, Object> itemData : itemsData) {
                 OrderItem item = new OrderItem();
+                // Name and price come from the catalog when the order is priced; the client's
+                // are kept only for pricing while the catalog is empty
                 item.setProductId(Long.valueOf(itemData.get("productId").toString()));
                 item.setProductName((String) itemData.get("productName"));
-                item.setPrice(new BigDecimal(itemData.get("price").toString()));
+                item.setPrice(itemData.get("price") != null ? new BigDecimal(itemData.get("price").toString()) : null);
                 item.setQuantity(Integer.valueOf(itemData.get("quantity").toString()));
                 
                 // Optional fields with defaults
@@ -84,34 +163,15 @@ public class OrderController {
             shippingAddress.setPhone(addressData.getOrDefault("phone", ""));
             shippingAddress.setLandmark(addressData.getOrDefault("landmark", ""));
             
-            // Parse total amount (use totalAmount if available, otherwise calculate)
-            BigDecimal totalAmount = calculateTotalAmount(request, items);
-            
-            // Create order with simplified approach
-            Order order = orderService.createSimpleOrder(user, items, shippingAddress, totalAmount, 
+            // Totals are computed server-side; any totalAmount in the request is ignored
+            Order order = orderService.createOrder(user, items, shippingAddress, 
                 (String) request.getOrDefault("paymentMethod", "COD"));
             
-            // Create response matching frontend expectations
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", order.getId());
-            response.put("orderId", order.getOrderId());
-            response.put("totalAmount", order.getTotalAmount());
-            response.put("status", order.getStatus().toString());
-            response.put("createdAt", order.getOrderDate());
-            response.put("items", items.stream().map(item -> {
-                Map<String, Object> itemMap = new HashMap<>();
-                itemMap.put("productId", item.getProductId());
-                itemMap.put("productName", item.getProductName());
-                itemMap.put("quantity", item.getQuantity());
-                itemMap.put("price", item.getPrice());
-                return itemMap;
-            }).toArray());
-            response.put("shippingAddress", shippingAddress);
-            response.put("success", true);
-            response.put("message", "Order created successfully");
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(OrderCreatedResponse.from(order));
             
+        } catch (PasswordHashingService.HashingUnavailableException e) {
+            // Creating a guest account hashes a password; busy hashing is retryable, as on login
+            return errorResponse(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -120,42 +180,65 @@ public class OrderController {
         }
     }
     
+    /**
+     * Streams orders placed between {@code from} and {@code to} (inclusive dates) as NDJSON
+     * or CSV. Requires the {@code X-Export-Token} header to match
+     * {@code styler.orders.export.token}; the endpoint is disabled while no token is set.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportOrders(
+            @RequestHeader(value = "X-Export-Token", required = false) String exportToken,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status) {
+        if (configuredExportToken.isEmpty() || exportToken == null
+                || !MessageDigest.isEqual(configuredExportToken.getBytes(StandardCharsets.UTF_8),
+                                          exportToken.getBytes(StandardCharsets.UTF_8))) {
+            return errorResponse(HttpStatus.FORBIDDEN, "A valid X-Export-Token header is required");
+        }
+        
+        OrderExportService.Format exportFormat;
+        OrderStatus statusFilter;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase());
+            statusFilter = status == null || status.isBlank() ? null : OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return badRequest("format must be ndjson or csv, and status a valid order status");
+        }
+        LocalDateTime fromTime = from == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : from.atStartOfDay();
+        LocalDateTime toTime = to == null ? LocalDateTime.now().plusDays(1) : to.plusDays(1).atStartOfDay();
+        
+        StreamingResponseBody body = out -> orderExportService.export(fromTime, toTime, statusFilter, exportFormat, out);
+        String fileName = "orders-" + LocalDate.now() + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+            .body(body);
+    }
+    
+    /**
+     * Order details with an ETag from the order's version. A poll whose
+     * {@code If-None-Match} still matches gets 304 from a version lookup alone.
+     */
     @GetMapping("/{orderId}")
-    public ResponseEntity<?> getOrder(@PathVariable String orderId) {
+    public ResponseEntity<?> getOrder(@PathVariable String orderId,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<String> current = orderService.findVersion(orderId).map(version -> ETags.of(String.valueOf(version)));
+            if (current.isPresent() && ETags.matches(ifNoneMatch, current.get())) {
+                return ETags.notModified(current.get());
+            }
+        }
+        
         Optional<Order> orderOpt = orderService.findByOrderId(orderId);
         
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
-            Map<String, Object> response = new HashMap<>();
-            response.put("orderId", order.getOrderId());
-            response.put("status", order.getStatus().toString());
-            response.put("totalAmount", order.getTotalAmount());
-            response.put("subtotal", order.getSubtotal());
-            response.put("shippingCost", order.getShippingCost());
-            response.put("taxAmount", order.getTaxAmount());
-            response.put("orderDate", order.getOrderDate());
-            response.put("estimatedDelivery", order.getEstimatedDelivery());
-            response.put("actualDelivery", order.getActualDelivery());
-            response.put("shippingAddress", order.getShippingAddress());
-            
-            List<Map<String, Object>> itemsResponse = order.getItems().stream()
-                .map(item -> {
-                    Map<String, Object> itemMap = new HashMap<>();
-                    itemMap.put("productId", item.getProductId());
-                    itemMap.put("productName", item.getProductName());
-                    itemMap.put("productCategory", item.getProductCategory());
-                    itemMap.put("price", item.getPrice());
-                    itemMap.put("quantity", item.getQuantity());
-                    itemMap.put("color", item.getColor());
-                    itemMap.put("size", item.getSize());
-                    itemMap.put("imageUrl", item.getImageUrl());
-                    return itemMap;
-                })
-                .collect(Collectors.toList());
-            
-            response.put("items", itemsResponse);
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                .eTag(ETags.of(String.valueOf(order.getVersion())))
+                .cacheControl(ETags.REVALIDATE)
+                .body(OrderDetail.from(order));
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -174,21 +257,14 @@ public class OrderController {
     }
 
     private ResponseEntity<Map<String, Object>> badRequest(String message) {
+        return errorResponse(HttpStatus.BAD_REQUEST, message);
+    }
+
+    private ResponseEntity<Map<String, Object>> errorResponse(HttpStatus status, String message) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", false);
         response.put("message", message);
-        return ResponseEntity.badRequest().body(response);
-    }
-
-    private BigDecimal calculateTotalAmount(Map<String, Object> request, List<OrderItem> items) {
-        if (request.containsKey("totalAmount")) {
-            return new BigDecimal(request.get("totalAmount").toString());
-        }
-        BigDecimal total = BigDecimal.ZERO;
-        for (OrderItem item : items) {
-            total = total.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
-        }
-        return total;
+        return ResponseEntity.status(status).body(response);
     }
 
     private User resolveUser(Long userId, String email, Map<String, Object> payload) {
@@ -207,6 +283,13 @@ public class OrderController {
         return createGuestUser(email, payload);
     }
 
+    private Optional<User> findUser(Long userId, SessionPrincipal principal) {
+        if (principal != null) {
+            return Optional.of(principal.toUserReference());
+        }
+        return userService.findById(userId);
+    }
+
     private User createGuestUser(String email, Map<String, Object> payload) {
         Map<String, String> shippingAddress = getMap(payload, "shippingAddress");
         String fullName = (String) payload.getOrDefault("fullName", shippingAddress.getOrDefault("fullName", ""));
@@ -230,8 +313,12 @@ public class OrderController {
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserOrders(@PathVariable Long userId) {
-        Optional<User> userOpt = userService.findById(userId);
+    public ResponseEntity<?> getUserOrders(@PathVariable Long userId,
+                                           @AuthenticationPrincipal SessionPrincipal principal) {
+        if (principal != null && !principal.userId().equals(userId)) {
+            return errorResponse(HttpStatus.FORBIDDEN, "Session token does not belong to user " + userId);
+        }
+        Optional<User> userOpt = findUser(userId, principal);
         
         if (!userOpt.isPresent()) {
             Map<String, Object> errorResponse = new HashMap<>();
@@ -241,37 +328,82 @@ public class OrderController {
         }
         
         User user = userOpt.get();
-        List<Order> orders = orderService.getUserOrders(user);
+        List<Order> orders = orderService.getUserOrderHistory(user);
         
-        List<Map<String, Object>> ordersResponse = orders.stream()
-            .map(order -> {
-                Map<String, Object> orderMap = new HashMap<>();
-                orderMap.put("id", order.getId());
-                orderMap.put("orderId", order.getOrderId());
-                orderMap.put("status", order.getStatus().toString());
-                orderMap.put("totalAmount", order.getTotalAmount());
-                orderMap.put("createdAt", order.getOrderDate()); // Use 'createdAt' for consistency
-                orderMap.put("estimatedDelivery", order.getEstimatedDelivery());
-                orderMap.put("shippingAddress", order.getShippingAddress());
-                
-                // Include item details, as the frontend likely needs them
-                orderMap.put("items", order.getItems().stream().map(item -> {
-                    Map<String, Object> itemMap = new HashMap<>();
-                    itemMap.put("productId", item.getProductId());
-                    itemMap.put("productName", item.getProductName());
-                    itemMap.put("quantity", item.getQuantity());
-                    itemMap.put("price", item.getPrice());
-                    itemMap.put("imageUrl", item.getImageUrl());
-                    return itemMap;
-                }).collect(Collectors.toList()));
-
-                return orderMap;
-            })
+        List<OrderSummary> ordersResponse = orders.stream()
+            .map(OrderSummary::from)
             .collect(Collectors.toList());
         
         return ResponseEntity.ok(ordersResponse);
     }
     
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<?> getUserOrdersPage(@PathVariable Long userId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size,
+                                               @AuthenticationPrincipal SessionPrincipal principal) {
+        if (principal != null && !principal.userId().equals(userId)) {
+            return errorResponse(HttpStatus.FORBIDDEN, "Session token does not belong to user " + userId);
+        }
+        Optional<User> userOpt = findUser(userId, principal);
+        
+        if (!userOpt.isPresent()) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "User not found with ID: " + userId);
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        
+        try {
+            OrderHistoryPage page = orderService.getUserOrderPage(userOpt.get(), cursor, size);
+            
+            return ResponseEntity.ok(OrderHistoryPageResponse.from(page));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+    
+    /**
+     * Moves many orders to one status, e.g. {@code {"orderIds": ["ORD-..."], "status": "SHIPPED"}},
+     * and reports the outcome for each id.
+     */
+    @PutMapping("/status")
+    public ResponseEntity<?> updateOrderStatuses(@RequestBody Map<String, Object> request) {
+        if (!(request.get("orderIds") instanceof List<?> orderIdValues) || orderIdValues.isEmpty()) {
+            return badRequest("orderIds array is required and cannot be empty");
+        }
+        if (request.get("status") == null) {
+            return badRequest("status is required");
+        }
+        OrderStatus status;
+        try {
+            status = OrderStatus.valueOf(request.get("status").toString().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return badRequest("Invalid status: " + request.get("status"));
+        }
+        List<String> orderIds = orderIdValues.stream().map(String::valueOf).toList();
+        
+        try {
+            List<OrderStatusUpdateResult> results = orderService.updateOrderStatuses(orderIds, status);
+            
+            Map<OrderStatusUpdateResult.Outcome, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(OrderStatusUpdateResult::outcome, Collectors.counting()));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Order statuses updated");
+            response.put("status", status.toString());
+            response.put("updated", counts.getOrDefault(OrderStatusUpdateResult.Outcome.UPDATED, 0L));
+            response.put("unchanged", counts.getOrDefault(OrderStatusUpdateResult.Outcome.UNCHANGED, 0L));
+            response.put("notFound", counts.getOrDefault(OrderStatusUpdateResult.Outcome.NOT_FOUND, 0L));
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+    
     @PutMapping("/{orderId}/status")
     public ResponseEntity<?> updateOrderStatus(@PathVariable String orderId, @RequestBody Map<String, String> request) {
         try {
@@ -0,0 +1,102 @@
+package com.styler.controller;
+
+import com.styler.dto.ProductPageResponse;
+import com.styler.dto.ProductSummary;
+import com.styler.service.CatalogImportService;
+import com.styler.service.ProductCatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products")
+@Profile({"prod", "dev", "default", "render-prod"})
+public class ProductController {
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Value("${styler.catalog.import.token:}")
+    private String configuredImportToken;
+
+    /**
+     * Active products filtered by category, color and size. Each may be repeated to match
+     * any of several values, e.g. {@code ?color=black&color=white&size=M}.
+     */
+    @GetMapping
+    public ResponseEntity<ProductPageResponse> searchProducts(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> color,
+            @RequestParam(required = false) List<String> size,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer pageSize) {
+        Map<ProductCatalogService.Facet, List<String>> filters = new EnumMap<>(ProductCatalogService.Facet.class);
+        putFilter(filters, ProductCatalogService.Facet.CATEGORY, category);
+        putFilter(filters, ProductCatalogService.Facet.COLOR, color);
+        putFilter(filters, ProductCatalogService.Facet.SIZE, size);
+
+        return ResponseEntity.ok(ProductPageResponse.from(productCatalogService.search(filters, page, pageSize)));
+    }
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<?> getProduct(@PathVariable Long productId) {
+        return productCatalogService.find(productId)
+                .<ResponseEntity<?>>map(product -> ResponseEntity.ok(ProductSummary.from(product)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Inserts or updates products by id, as a JSON array of {@code id}, {@code name},
+     * {@code category}, {@code price}, {@code imageUrl}, {@code colors}, {@code sizes} and
+     * {@code active}. Requires the {@code X-Catalog-Token} header to match
+     * {@code styler.catalog.import.token}; the endpoint is disabled while no token is set.
+     */
+    @PutMapping
+    public ResponseEntity<?> importProducts(
+            @RequestHeader(value = "X-Catalog-Token", required = false) String catalogToken,
+            @RequestBody List<CatalogImportService.ProductImport> products) {
+        if (configuredImportToken.isEmpty() || catalogToken == null
+                || !MessageDigest.isEqual(configuredImportToken.getBytes(StandardCharsets.UTF_8),
+                                          catalogToken.getBytes(StandardCharsets.UTF_8))) {
+            return errorResponse(HttpStatus.FORBIDDEN, "A valid X-Catalog-Token header is required");
+        }
+
+        try {
+            int imported = catalogImportService.importProducts(products);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("imported", imported);
+            response.put("activeProducts", productCatalogService.size());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> errorResponse(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private void putFilter(Map<ProductCatalogService.Facet, List<String>> filters,
+                           ProductCatalogService.Facet facet, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            filters.put(facet, values);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.styler.controller;
 
 import com.styler.model.User;
+import com.styler.service.PasswordHashingService;
+import com.styler.service.SessionTokenService;
 import com.styler.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
@@ -19,6 +21,9 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private SessionTokenService sessionTokenService;
+    
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@RequestBody Map<String, String> request) {
         try {
@@ -52,6 +57,11 @@ public class UserController {
             response.put("success", false);
             response.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(response);
+        } catch (PasswordHashingService.HashingUnavailableException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -69,7 +79,15 @@ public class UserController {
             return ResponseEntity.badRequest().body("Email and password are required");
         }
         
-        Optional<User> userOpt = userService.authenticateUser(email, password);
+        Optional<User> userOpt;
+        try {
+            userOpt = userService.authenticateUser(email, password);
+        } catch (PasswordHashingService.HashingUnavailableException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
         
         if (userOpt.isPresent()) {
             User user = userOpt.get();
@@ -78,6 +96,11 @@ public class UserController {
             response.put("message", "Login successful");
             response.put("user", buildUserResponse(user));
             
+            // Sent back as "Authorization: Bearer <token>" on cart and order calls
+            SessionTokenService.SessionToken token = sessionTokenService.issue(user);
+            response.put("token", token.value());
+            response.put("tokenExpiresAt", token.expiresAt().toString());
+            
             return ResponseEntity.ok(response);
         } else {
             Map<String, Object> response = new HashMap<>();
@@ -159,6 +182,11 @@ public class UserController {
                 return ResponseEntity.badRequest().body(response);
             }
             
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -169,11 +197,7 @@ public class UserController {
 
     @PutMapping("/{email}")
     public ResponseEntity<?> updateUser(@PathVariable String email, @RequestBody Map<String, String> updates) {
-        Optional<User> userOpt = userService.findByEmail(email);
-        
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            
+        Optional<User> userOpt = userService.updateUser(email, user -> {
             if (updates.containsKey("firstName")) {
                 user.setFirstName(updates.get("firstName"));
             }
@@ -183,13 +207,13 @@ public class UserController {
             if (updates.containsKey("phone")) {
                 user.setPhone(updates.get("phone"));
             }
-            
-            User updatedUser = userService.updateUser(user);
-            
+        });
+        
+        if (userOpt.isPresent()) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "User updated successfully");
-            response.put("user", buildUserResponse(updatedUser));
+            response.put("user", buildUserResponse(userOpt.get()));
             
             return ResponseEntity.ok(response);
         } else {
@@ -0,0 +1,39 @@
+package com.styler.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.styler.model.Order;
+import com.styler.model.ShippingAddress;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response body for POST /api/orders.
+ */
+@JsonPropertyOrder({"totalAmount", "createdAt", "orderId", "success", "shippingAddress", "id", "message", "items", "status"})
+public record OrderCreatedResponse(
+        boolean success,
+        String message,
+        Long id,
+        String orderId,
+        BigDecimal totalAmount,
+        String status,
+        LocalDateTime createdAt,
+        @JsonIgnoreProperties("imageUrl") List<OrderItemSummary> items,
+        ShippingAddress shippingAddress) {
+
+    public static OrderCreatedResponse from(Order order) {
+        return new OrderCreatedResponse(
+                true,
+                "Order created successfully",
+                order.getId(),
+                order.getOrderId(),
+                order.getTotalAmount(),
+                order.getStatus().toString(),
+                order.getOrderDate(),
+                order.getItems().stream().map(OrderItemSummary::from).toList(),
+                order.getShippingAddress());
+    }
+}
@@ -0,0 +1,43 @@
+package com.styler.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.styler.model.Order;
+import com.styler.model.ShippingAddress;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Single order with totals breakdown and full item lines.
+ */
+@JsonPropertyOrder({"totalAmount", "shippingCost", "orderId", "subtotal", "actualDelivery", "shippingAddress", "taxAmount",
+        "orderDate", "items", "estimatedDelivery", "status"})
+public record OrderDetail(
+        String orderId,
+        String status,
+        BigDecimal totalAmount,
+        BigDecimal subtotal,
+        BigDecimal shippingCost,
+        BigDecimal taxAmount,
+        LocalDateTime orderDate,
+        LocalDateTime estimatedDelivery,
+        LocalDateTime actualDelivery,
+        ShippingAddress shippingAddress,
+        List<OrderItemLine> items) {
+
+    public static OrderDetail from(Order order) {
+        return new OrderDetail(
+                order.getOrderId(),
+                order.getStatus().toString(),
+                order.getTotalAmount(),
+                order.getSubtotal(),
+                order.getShippingCost(),
+                order.getTaxAmount(),
+                order.getOrderDate(),
+                order.getEstimatedDelivery(),
+                order.getActualDelivery(),
+                order.getShippingAddress(),
+                order.getItems().stream().map(OrderItemLine::from).toList());
+    }
+}
@@ -0,0 +1,23 @@
+package com.styler.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.styler.service.OrderHistoryPage;
+
+import java.util.List;
+
+/**
+ * Response body for the cursor-paginated order history endpoint.
+ */
+@JsonPropertyOrder({"nextCursor", "hasMore", "orders"})
+public record OrderHistoryPageResponse(
+        List<OrderSummary> orders,
+        String nextCursor,
+        boolean hasMore) {
+
+    public static OrderHistoryPageResponse from(OrderHistoryPage page) {
+        return new OrderHistoryPageResponse(
+                page.orders().stream().map(OrderSummary::from).toList(),
+                page.nextCursor(),
+                page.hasMore());
+    }
+}
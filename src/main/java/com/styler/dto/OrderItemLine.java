@@ -0,0 +1,33 @@
+package com.styler.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.styler.model.OrderItem;
+
+import java.math.BigDecimal;
+
+/**
+ * Full item line as returned by the order detail endpoint.
+ */
+@JsonPropertyOrder({"quantity", "productId", "color", "size", "price", "imageUrl", "productName", "productCategory"})
+public record OrderItemLine(
+        Long productId,
+        String productName,
+        String productCategory,
+        BigDecimal price,
+        Integer quantity,
+        String color,
+        String size,
+        String imageUrl) {
+
+    public static OrderItemLine from(OrderItem item) {
+        return new OrderItemLine(
+                item.getProductId(),
+                item.getProductName(),
+                item.getProductCategory(),
+                item.getPrice(),
+                item.getQuantity(),
+                item.getColor(),
+                item.getSize(),
+                item.getImageUrl());
+    }
+}
@@ -0,0 +1,27 @@
+package com.styler.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.styler.model.OrderItem;
+
+import java.math.BigDecimal;
+
+/**
+ * Compact item line used in order lists and order creation responses.
+ */
+@JsonPropertyOrder({"quantity", "productId", "price", "imageUrl", "productName"})
+public record OrderItemSummary(
+        Long productId,
+        String productName,
+        Integer quantity,
+        BigDecimal price,
+        String imageUrl) {
+
+    public static OrderItemSummary from(OrderItem item) {
+        return new OrderItemSummary(
+                item.getProductId(),
+                item.getProductName(),
+                item.getQuantity(),
+                item.getPrice(),
+                item.getImageUrl());
+    }
+}
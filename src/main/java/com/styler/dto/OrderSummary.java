@@ -0,0 +1,39 @@
+package com.styler.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.styler.model.Order;
+import com.styler.model.ShippingAddress;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Order entry in a user's order history.
+ *
+ * <p>The order and item DTOs list their properties in the iteration order of the
+ * {@code HashMap}s they replaced, so response bodies stay byte-for-byte the same.
+ */
+@JsonPropertyOrder({"totalAmount", "createdAt", "orderId", "shippingAddress", "id", "items", "estimatedDelivery", "status"})
+public record OrderSummary(
+        Long id,
+        String orderId,
+        String status,
+        BigDecimal totalAmount,
+        LocalDateTime createdAt,
+        LocalDateTime estimatedDelivery,
+        ShippingAddress shippingAddress,
+        List<OrderItemSummary> items) {
+
+    public static OrderSummary from(Order order) {
+        return new OrderSummary(
+                order.getId(),
+                order.getOrderId(),
+                order.getStatus().toString(),
+                order.getTotalAmount(),
+                order.getOrderDate(),
+                order.getEstimatedDelivery(),
+                order.getShippingAddress(),
+                order.getItems().stream().map(OrderItemSummary::from).toList());
+    }
+}
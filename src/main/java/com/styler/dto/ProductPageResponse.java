@@ -0,0 +1,27 @@
+package com.styler.dto;
+
+import com.styler.service.ProductCatalogService;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response body for catalog search: one page of products, the total number of matches and
+ * per-value counts for each facet.
+ */
+public record ProductPageResponse(
+        List<ProductSummary> products,
+        int total,
+        int page,
+        int pageSize,
+        Map<String, Map<String, Integer>> facets) {
+
+    public static ProductPageResponse from(ProductCatalogService.CatalogPage page) {
+        return new ProductPageResponse(
+                page.products().stream().map(ProductSummary::from).toList(),
+                page.total(),
+                page.page(),
+                page.pageSize(),
+                page.facets());
+    }
+}
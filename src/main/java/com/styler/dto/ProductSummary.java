@@ -0,0 +1,30 @@
+package com.styler.dto;
+
+import com.styler.service.ProductCatalogService;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Product as returned by the catalog endpoints.
+ */
+public record ProductSummary(
+        Long id,
+        String name,
+        String category,
+        BigDecimal price,
+        String imageUrl,
+        List<String> colors,
+        List<String> sizes) {
+
+    public static ProductSummary from(ProductCatalogService.CatalogProduct product) {
+        return new ProductSummary(
+                product.id(),
+                product.name(),
+                product.category(),
+                product.price(),
+                product.imageUrl(),
+                product.colors(),
+                product.sizes());
+    }
+}
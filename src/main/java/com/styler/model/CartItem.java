@@ -2,15 +2,19 @@ package com.styler.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", indexes = {
+    @Index(name = "idx_cart_items_user", columnList = "user_id")
+})
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "product_id")
@@ -42,6 +46,11 @@ public class CartItem {
     @JsonIgnore
     private User user;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public CartItem() {
         this.quantity = 1;
     }
@@ -125,4 +134,20 @@ public class CartItem {
     public void setUser(User user) {
         this.user = user;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Identifies a cart line independently of its database id:
+     * the same product in the same color and size is the same line.
+     */
+    public String lineKey() {
+        return productId + "|" + color + "|" + size;
+    }
 }
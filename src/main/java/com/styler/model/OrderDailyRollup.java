@@ -0,0 +1,40 @@
+package com.styler.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Order count and revenue for one calendar day, excluding cancelled orders.
+ */
+@Entity
+@Table(name = "order_daily_rollups")
+public class OrderDailyRollup {
+    
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate day;
+    
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+    
+    @Column(name = "revenue", precision = 14, scale = 2, nullable = false)
+    private BigDecimal revenue;
+    
+    public OrderDailyRollup() {}
+    
+    public OrderDailyRollup(LocalDate day) {
+        this.day = day;
+        this.orderCount = 0;
+        this.revenue = BigDecimal.ZERO;
+    }
+    
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+    
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+    
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+}
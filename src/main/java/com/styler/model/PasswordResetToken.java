@@ -0,0 +1,42 @@
+package com.styler.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * The outstanding password reset token for one email. Only a SHA-256 hash of the token
+ * is stored.
+ */
+@Entity
+@Table(name = "password_reset_tokens", indexes = {
+    @Index(name = "idx_password_reset_tokens_expires", columnList = "expires_at")
+})
+public class PasswordResetToken {
+    
+    @Id
+    @Column(name = "email")
+    private String email;
+    
+    @Column(name = "token_hash", length = 64, nullable = false)
+    private String tokenHash;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    public PasswordResetToken() {}
+    
+    public PasswordResetToken(String email, String tokenHash, LocalDateTime expiresAt) {
+        this.email = email;
+        this.tokenHash = tokenHash;
+        this.expiresAt = expiresAt;
+    }
+    
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    
+    public String getTokenHash() { return tokenHash; }
+    public void setTokenHash(String tokenHash) { this.tokenHash = tokenHash; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,88 @@
+package com.styler.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A catalog product and its current price. Ids are the catalog's own product ids, as sent
+ * by the storefront. {@code colors} and {@code sizes} are comma-separated lists of the
+ * variants on offer. Products are retired by clearing {@code active} rather than deleted,
+ * so catalog refreshes see the change.
+ */
+@Entity
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_updated", columnList = "updated_at")
+})
+public class Product {
+    
+    @Id
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "name", nullable = false)
+    private String name;
+    
+    @Column(name = "category")
+    private String category;
+    
+    @Column(name = "price", precision = 10, scale = 2, nullable = false)
+    private BigDecimal price;
+    
+    @Column(name = "image_url")
+    private String imageUrl;
+    
+    @Column(name = "colors", length = 500)
+    private String colors;
+    
+    @Column(name = "sizes", length = 200)
+    private String sizes;
+    
+    @Column(name = "active", nullable = false)
+    private boolean active = true;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public Product() {}
+    
+    public Product(Long id, String name, String category, BigDecimal price) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.price = price;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    protected void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    
+    public String getColors() { return colors; }
+    public void setColors(String colors) { this.colors = colors; }
+    
+    public String getSizes() { return sizes; }
+    public void setSizes(String sizes) { this.sizes = sizes; }
+    
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -8,7 +8,8 @@ import jakarta.validation.constraints.NotBlank;
 public class ShippingAddress {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shipping_addresses_seq")
+    @SequenceGenerator(name = "shipping_addresses_seq", sequenceName = "shipping_addresses_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "First name is required")
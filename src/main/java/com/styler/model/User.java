@@ -3,7 +3,6 @@ package com.styler.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,7 +12,8 @@ import java.util.List;
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Email is required")
@@ -22,7 +22,6 @@ public class User {
     private String email;
     
     @NotBlank(message = "Password is required")
-    @Size(min = 6, message = "Password must be at least 6 characters")
     @JsonIgnore
     private String password;
     
@@ -41,6 +40,12 @@ public class User {
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
     
+    // The cart's ETag, bumped and read through UserRepository by every cart write and read.
+    // Not updatable, so saving a cached User cannot roll it back
+    @Column(name = "cart_version", nullable = false, updatable = false)
+    @JsonIgnore
+    private long cartVersion;
+    
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Order> orders;
@@ -55,6 +60,19 @@ public class User {
         this.password = password;
     }
     
+    // Unmanaged copy of the column values, without the orders collection
+    public User copy() {
+        User copy = new User(email, password);
+        copy.id = id;
+        copy.firstName = firstName;
+        copy.lastName = lastName;
+        copy.phone = phone;
+        copy.joinDate = joinDate;
+        copy.lastLogin = lastLogin;
+        copy.cartVersion = cartVersion;
+        return copy;
+    }
+    
    
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
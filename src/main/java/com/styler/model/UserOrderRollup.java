@@ -0,0 +1,39 @@
+package com.styler.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Order count and lifetime value for one user, excluding cancelled orders.
+ */
+@Entity
+@Table(name = "user_order_rollups")
+public class UserOrderRollup {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+    
+    @Column(name = "lifetime_value", precision = 14, scale = 2, nullable = false)
+    private BigDecimal lifetimeValue;
+    
+    public UserOrderRollup() {}
+    
+    public UserOrderRollup(Long userId) {
+        this.userId = userId;
+        this.orderCount = 0;
+        this.lifetimeValue = BigDecimal.ZERO;
+    }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+    
+    public BigDecimal getLifetimeValue() { return lifetimeValue; }
+    public void setLifetimeValue(BigDecimal lifetimeValue) { this.lifetimeValue = lifetimeValue; }
+}
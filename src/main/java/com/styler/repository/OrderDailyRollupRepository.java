@@ -0,0 +1,25 @@
+package com.styler.repository;
+
+import com.styler.model.OrderDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface OrderDailyRollupRepository extends JpaRepository<OrderDailyRollup, LocalDate> {
+    
+    @Modifying
+    @Query("UPDATE OrderDailyRollup r SET r.orderCount = r.orderCount + :count, r.revenue = r.revenue + :revenue " +
+           "WHERE r.day = :day")
+    int increment(@Param("day") LocalDate day, @Param("count") long count, @Param("revenue") BigDecimal revenue);
+    
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0) FROM OrderDailyRollup r WHERE r.day >= :from")
+    long sumOrderCountFrom(@Param("from") LocalDate from);
+    
+    @Query("SELECT COALESCE(SUM(r.revenue), 0) FROM OrderDailyRollup r WHERE r.day >= :from")
+    BigDecimal sumRevenueFrom(@Param("from") LocalDate from);
+}
@@ -0,0 +1,23 @@
+package com.styler.repository;
+
+import com.styler.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One order as written by the order export, read as a projection so no entities are kept.
+ */
+public record OrderExportRow(
+        String orderId,
+        LocalDateTime orderDate,
+        OrderStatus status,
+        Long userId,
+        String userEmail,
+        BigDecimal subtotal,
+        BigDecimal shippingCost,
+        BigDecimal taxAmount,
+        BigDecimal totalAmount,
+        LocalDateTime estimatedDelivery,
+        LocalDateTime actualDelivery) {
+}
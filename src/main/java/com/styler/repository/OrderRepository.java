@@ -1,24 +1,74 @@
 package com.styler.repository;
 
 import com.styler.model.Order;
+import com.styler.model.OrderStatus;
 import com.styler.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
     Optional<Order> findByOrderId(String orderId);
     
+    // Version only, for conditional GETs, through the unique order_id index
+    @Query("SELECT o.version FROM Order o WHERE o.orderId = :orderId")
+    Optional<Long> findVersionByOrderId(@Param("orderId") String orderId);
+    
     List<Order> findByUserOrderByOrderDateDesc(User user);
     
+    // Loads orders together with their items and shipping address in a single round trip
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.shippingAddress LEFT JOIN FETCH o.items " +
+           "WHERE o.user = :user ORDER BY o.orderDate DESC")
+    List<Order> findOrderHistoryByUser(@Param("user") User user);
+    
+    // Keyset pagination over (order_date, id): first page and pages after a cursor
+    @Query("SELECT o.id FROM Order o WHERE o.user = :user ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findOrderIdsByUser(@Param("user") User user, Pageable pageable);
+    
+    @Query("SELECT o.id FROM Order o WHERE o.user = :user " +
+           "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) " +
+           "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findOrderIdsByUserBefore(@Param("user") User user, @Param("orderDate") LocalDateTime orderDate,
+                                        @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.shippingAddress LEFT JOIN FETCH o.items " +
+           "WHERE o.id IN :ids ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+    
     List<Order> findByOrderDateBetween(LocalDateTime start, LocalDateTime end);
     
+    @Query("SELECT o.id FROM Order o ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findLatestOrderIds(Pageable pageable);
+    
+    // Forward-only read for the order export; rows are fetched from the driver in batches
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.styler.repository.OrderExportRow(o.orderId, o.orderDate, o.status, u.id, u.email, " +
+           "o.subtotal, o.shippingCost, o.taxAmount, o.totalAmount, o.estimatedDelivery, o.actualDelivery) " +
+           "FROM Order o JOIN o.user u " +
+           "WHERE o.orderDate >= :from AND o.orderDate < :to AND (:status IS NULL OR o.status = :status) " +
+           "ORDER BY o.orderDate, o.id")
+    Stream<OrderExportRow> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                           @Param("status") OrderStatus status);
+    
     @Query("SELECT o FROM Order o WHERE o.user = :user AND o.orderDate >= :date")
     List<Order> findRecentOrdersByUser(@Param("user") User user, @Param("date") LocalDateTime date);
     
@@ -27,4 +77,38 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.orderDate >= :date")
     Double getTotalRevenueAfter(@Param("date") LocalDateTime date);
-}
\ No newline at end of file
+    
+    // Range queries and aggregates used by the order rollups, which leave out cancelled orders
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.orderDate >= :from AND o.orderDate < :to " +
+           "AND o.status <> com.styler.model.OrderStatus.CANCELLED")
+    long countActiveOrdersBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.orderDate >= :from AND o.orderDate < :to " +
+           "AND o.status <> com.styler.model.OrderStatus.CANCELLED")
+    BigDecimal sumActiveRevenueBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT cast(o.orderDate as LocalDate), COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o " +
+           "WHERE o.status <> com.styler.model.OrderStatus.CANCELLED GROUP BY cast(o.orderDate as LocalDate)")
+    List<Object[]> aggregateActiveOrdersByDay();
+    
+    @Query("SELECT o.user.id, COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o " +
+           "WHERE o.status <> com.styler.model.OrderStatus.CANCELLED GROUP BY o.user.id")
+    List<Object[]> aggregateActiveOrdersByUser();
+    
+    // Set-based status changes for the bulk status endpoint, without loading the entities.
+    // The rows are locked, in id order, until the UPDATE commits, so a concurrent change to one
+    // of them either finishes first and is read here or waits and fails its version check
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.styler.repository.OrderStatusRow(o.id, o.orderId, o.status, o.user.id, o.orderDate, o.totalAmount) " +
+           "FROM Order o WHERE o.orderId IN :orderIds ORDER BY o.id")
+    List<OrderStatusRow> findStatusRowsByOrderIdIn(@Param("orderIds") Collection<String> orderIds);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.version = o.version + 1 WHERE o.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.status = com.styler.model.OrderStatus.DELIVERED, o.actualDelivery = :deliveredAt, " +
+           "o.version = o.version + 1 WHERE o.id IN :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("deliveredAt") LocalDateTime deliveredAt);
+}
@@ -0,0 +1,18 @@
+package com.styler.repository;
+
+import com.styler.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The columns of an order that a status change needs, read without loading the entity.
+ */
+public record OrderStatusRow(
+        Long id,
+        String orderId,
+        OrderStatus status,
+        Long userId,
+        LocalDateTime orderDate,
+        BigDecimal totalAmount) {
+}
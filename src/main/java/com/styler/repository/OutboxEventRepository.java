@@ -0,0 +1,54 @@
+package com.styler.repository;
+
+import com.styler.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // Lock timeout -2 is SKIP LOCKED, so concurrent dispatchers claim different rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.failedAt IS NULL AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<OutboxEvent> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Writes a failed delivery back to an event, but only while it is still under the claim
+     * that made {@code attempts}; a row re-claimed by another dispatcher or already delivered
+     * and deleted is left alone.
+     *
+     * @return 1 if the event was updated, 0 if the claim had been lost
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError, e.failedAt = :failedAt " +
+           "WHERE e.id = :id AND e.attempts = :attempts")
+    int recordFailure(@Param("id") Long id, @Param("attempts") int attempts,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError,
+                      @Param("failedAt") LocalDateTime failedAt);
+    
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.failedAt < :before")
+    int deleteFailedBefore(@Param("before") LocalDateTime before);
+    
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.failedAt IS NULL")
+    long countPending();
+    
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.failedAt IS NOT NULL")
+    long countFailed();
+}
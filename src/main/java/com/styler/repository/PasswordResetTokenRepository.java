@@ -0,0 +1,21 @@
+package com.styler.repository;
+
+import com.styler.model.PasswordResetToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, String> {
+    
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.email = :email AND t.tokenHash = :tokenHash AND t.expiresAt > :now")
+    int consume(@Param("email") String email, @Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
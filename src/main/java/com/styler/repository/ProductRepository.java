@@ -0,0 +1,13 @@
+package com.styler.repository;
+
+import com.styler.model.Product;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductRepository extends JpaRepository<Product, Long> {
+    
+    List<Product> findByUpdatedAtAfter(LocalDateTime since);
+}
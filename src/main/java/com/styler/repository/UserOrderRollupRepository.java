@@ -0,0 +1,18 @@
+package com.styler.repository;
+
+import com.styler.model.UserOrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+
+@Repository
+public interface UserOrderRollupRepository extends JpaRepository<UserOrderRollup, Long> {
+    
+    @Modifying
+    @Query("UPDATE UserOrderRollup r SET r.orderCount = r.orderCount + :count, " +
+           "r.lifetimeValue = r.lifetimeValue + :amount WHERE r.userId = :userId")
+    int increment(@Param("userId") Long userId, @Param("count") long count, @Param("amount") BigDecimal amount);
+}
@@ -2,6 +2,7 @@ package com.styler.repository;
 
 import com.styler.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,4 +24,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT COUNT(u) FROM User u WHERE u.joinDate >= :date")
     long countNewUsersAfter(@Param("date") LocalDateTime date);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.cartVersion = u.cartVersion + 1 WHERE u.id = :id")
+    int incrementCartVersion(@Param("id") Long id);
+    
+    @Query("SELECT u.cartVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findCartVersion(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id AND u.password = :previous")
+    int updatePassword(@Param("id") Long id, @Param("previous") String previous, @Param("password") String password);
 }
\ No newline at end of file
@@ -3,13 +3,20 @@ package com.styler.service;
 import com.styler.model.CartItem;
 import com.styler.model.User;
 import com.styler.repository.CartItemRepository;
+import com.styler.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Profile({"prod", "dev", "default", "render-prod"})
@@ -18,25 +25,149 @@ public class CartService {
     @Autowired
     private CartItemRepository cartItemRepository;
 
+    @Autowired
+    private CartWriter cartWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Only present when styler.cart.store=write-behind
+    @Autowired(required = false)
+    private WriteBehindCartStore writeBehindCartStore;
+
+    // Not wrapped in a read-only transaction: findByUser already runs read-only and may use
+    // a replica, but the write-behind store must load from the primary
     public List<CartItem> getCartForUser(User user) {
+        if (writeBehindCartStore != null) {
+            return writeBehindCartStore.get(user);
+        }
         List<CartItem> items = cartItemRepository.findByUser(user);
         return items == null ? Collections.emptyList() : items;
     }
 
-    @Transactional
-    public void replaceCart(User user, List<CartItem> items) {
-        cartItemRepository.deleteByUser(user);
+    /**
+     * The cart's current ETag value from its version alone, or null if it cannot be told
+     * without loading the cart.
+     */
+    public String getCartTag(User user) {
+        if (writeBehindCartStore != null) {
+            return writeBehindCartStore.currentTag(user);
+        }
+        return userRepository.findCartVersion(user.getId()).map(String::valueOf).orElse(null);
+    }
+
+    public CartSnapshot getCartSnapshot(User user) {
+        if (writeBehindCartStore != null) {
+            return writeBehindCartStore.getSnapshot(user);
+        }
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // One transaction so both reads see the same database, and the version first so a
+        // concurrent write can only make the tag older than the lines, never newer
+        return readOnly.execute(status -> {
+            String tag = userRepository.findCartVersion(user.getId()).map(String::valueOf).orElse("0");
+            return new CartSnapshot(cartItemRepository.findByUser(user), tag);
+        });
+    }
 
-        if (items == null || items.isEmpty()) {
+    public void replaceCart(User user, List<CartItem> items) {
+        if (writeBehindCartStore != null) {
+            writeBehindCartStore.put(user, items == null ? Collections.emptyList() : items);
             return;
         }
+        cartWriter.writeCart(user, items);
+    }
+
+    /**
+     * Adds a line to the cart, or increases the quantity of the matching line if one exists.
+     */
+    @Transactional
+    public CartItem addItem(User user, CartItem item) {
+        beforeLineChange(user);
+        userRepository.incrementCartVersion(user.getId());
+
+        for (CartItem existing : cartItemRepository.findByUser(user)) {
+            if (existing.lineKey().equals(item.lineKey())) {
+                existing.setQuantity(existing.getQuantity() + item.getQuantity());
+                return existing;
+            }
+        }
 
-        items.forEach(item -> item.setUser(user));
-        cartItemRepository.saveAll(items);
+        item.setUser(user);
+        return cartItemRepository.save(item);
+    }
+
+    /**
+     * Sets the quantity of one cart line. A quantity of zero or less removes the line.
+     * When {@code expectedVersion} is given it must match the stored version.
+     *
+     * @return the updated line, or empty if the line was removed
+     */
+    @Transactional
+    public Optional<CartItem> updateItemQuantity(User user, Long itemId, int quantity, Long expectedVersion) {
+        beforeLineChange(user);
+        userRepository.incrementCartVersion(user.getId());
+
+        CartItem item = cartItemRepository.findByIdAndUser(itemId, user)
+                .orElseThrow(() -> new IllegalArgumentException("Cart item not found: " + itemId));
+
+        if (expectedVersion != null && !expectedVersion.equals(item.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(CartItem.class, itemId);
+        }
+
+        if (quantity <= 0) {
+            cartItemRepository.delete(item);
+            return Optional.empty();
+        }
+
+        item.setQuantity(quantity);
+        return Optional.of(item);
+    }
+
+    @Transactional
+    public boolean removeItem(User user, Long itemId) {
+        beforeLineChange(user);
+
+        Optional<CartItem> item = cartItemRepository.findByIdAndUser(itemId, user);
+        if (item.isPresent()) {
+            userRepository.incrementCartVersion(user.getId());
+            cartItemRepository.delete(item.get());
+        }
+        return item.isPresent();
     }
 
     @Transactional
     public void clearCart(User user) {
+        if (writeBehindCartStore != null) {
+            writeBehindCartStore.put(user, Collections.emptyList());
+            return;
+        }
+        userRepository.incrementCartVersion(user.getId());
         cartItemRepository.deleteByUser(user);
     }
+
+    /**
+     * Line-level changes go straight to the database. In write-behind mode the pending
+     * cart is written first and the cached copy is dropped once the change commits. If the
+     * pending cart can't be written, the change is refused rather than applied under a
+     * cached cart that a later flush would write over it.
+     *
+     * @throws WriteBehindCartStore.CartFlushException if the pending cart could not be written
+     */
+    private void beforeLineChange(User user) {
+        if (writeBehindCartStore == null) {
+            return;
+        }
+
+        writeBehindCartStore.flush(user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                writeBehindCartStore.evict(user);
+            }
+        });
+    }
 }
@@ -0,0 +1,11 @@
+package com.styler.service;
+
+import com.styler.model.CartItem;
+
+import java.util.List;
+
+/**
+ * A user's cart lines together with the ETag value of that state of the cart.
+ */
+public record CartSnapshot(List<CartItem> items, String etag) {
+}
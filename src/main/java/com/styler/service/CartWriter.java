@@ -0,0 +1,109 @@
+package com.styler.service;
+
+import com.styler.model.CartItem;
+import com.styler.model.User;
+import com.styler.repository.CartItemRepository;
+import com.styler.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Persists whole-cart state by diffing it against the stored lines,
+ * so only the lines that actually changed are written.
+ */
+@Component
+@Profile({"prod", "dev", "default", "render-prod"})
+public class CartWriter {
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Makes the stored cart match {@code items}. Unchanged lines are left alone,
+     * changed lines are updated in place and lines missing from {@code items}
+     * are deleted in a single statement. The cart's version is bumped either way.
+     *
+     * @return the cart lines as stored after the write
+     */
+    @Transactional
+    public List<CartItem> writeCart(User user, List<CartItem> items) {
+        userRepository.incrementCartVersion(user.getId());
+        Map<String, Deque<CartItem>> existingByLine = new HashMap<>();
+        for (CartItem existing : cartItemRepository.findByUser(user)) {
+            existingByLine.computeIfAbsent(existing.lineKey(), key -> new ArrayDeque<>()).add(existing);
+        }
+
+        List<CartItem> result = new ArrayList<>();
+        List<CartItem> inserts = new ArrayList<>();
+        if (items != null) {
+            for (CartItem incoming : items) {
+                Deque<CartItem> matches = existingByLine.get(incoming.lineKey());
+                CartItem current = matches == null ? null : matches.poll();
+                if (current == null) {
+                    // Ids from an earlier snapshot may refer to rows that no longer exist
+                    incoming.setId(null);
+                    incoming.setVersion(null);
+                    incoming.setUser(user);
+                    inserts.add(incoming);
+                    result.add(incoming);
+                } else {
+                    if (!sameContent(current, incoming)) {
+                        copyContent(incoming, current);
+                    }
+                    result.add(current);
+                }
+            }
+        }
+
+        List<CartItem> removed = new ArrayList<>();
+        existingByLine.values().forEach(removed::addAll);
+
+        if (!removed.isEmpty()) {
+            cartItemRepository.deleteAllInBatch(removed);
+        }
+        if (!inserts.isEmpty()) {
+            cartItemRepository.saveAll(inserts);
+        }
+        return result;
+    }
+
+    /**
+     * Writes several carts in one transaction of their own, used by write-behind flushes.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public Map<User, List<CartItem>> writeCarts(Map<User, List<CartItem>> carts) {
+        Map<User, List<CartItem>> written = new HashMap<>();
+        carts.forEach((user, items) -> written.put(user, writeCart(user, items)));
+        return written;
+    }
+
+    private boolean sameContent(CartItem current, CartItem incoming) {
+        return Objects.equals(current.getQuantity(), incoming.getQuantity())
+                && current.getPrice() != null && incoming.getPrice() != null
+                && current.getPrice().compareTo(incoming.getPrice()) == 0
+                && Objects.equals(current.getProductName(), incoming.getProductName())
+                && Objects.equals(current.getCategory(), incoming.getCategory())
+                && Objects.equals(current.getImage(), incoming.getImage());
+    }
+
+    private void copyContent(CartItem source, CartItem target) {
+        target.setQuantity(source.getQuantity());
+        target.setPrice(source.getPrice());
+        target.setProductName(source.getProductName());
+        target.setCategory(source.getCategory());
+        target.setImage(source.getImage());
+    }
+}
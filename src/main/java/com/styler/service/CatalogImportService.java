@@ -0,0 +1,152 @@
+package com.styler.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.styler.model.Product;
+import com.styler.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads products into the {@code products} table, from which {@link ProductCatalogService}
+ * serves the catalog and {@link PricingService} prices carts and orders.
+ *
+ * <p>Products are upserted by id and the catalog is reloaded once they commit. On startup,
+ * if the table is empty and {@code styler.catalog.seed-location} is set, that resource (a
+ * JSON array in the import format, e.g. {@code file:/etc/styler/products.json}) is imported,
+ * so a deployment whose schema is recreated comes up with its catalog.
+ */
+@Service
+@Profile({"prod", "dev", "default", "render-prod"})
+public class CatalogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportService.class);
+
+    // Largest price the precision 10, scale 2 column can hold
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    /**
+     * One product as imported; {@code active} defaults to true.
+     */
+    public record ProductImport(Long id, String name, String category, BigDecimal price, String imageUrl,
+                                List<String> colors, List<String> sizes, Boolean active) {
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${styler.catalog.seed-location:}")
+    private String seedLocation;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public CatalogImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Inserts or updates the given products and reloads the catalog.
+     *
+     * @return the number of products written
+     * @throws IllegalArgumentException if a product has no id or name, or a price that is not
+     *                                  positive or too large; nothing is written then
+     */
+    public int importProducts(List<ProductImport> products) {
+        for (int i = 0; i < products.size(); i++) {
+            validate(i, products.get(i));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Product> existing = new HashMap<>();
+            for (Product product : productRepository.findAllById(products.stream().map(ProductImport::id).toList())) {
+                existing.put(product.getId(), product);
+            }
+            List<Product> changed = new ArrayList<>(products.size());
+            for (ProductImport imported : products) {
+                Product product = existing.computeIfAbsent(imported.id(), id -> {
+                    Product created = new Product();
+                    created.setId(id);
+                    return created;
+                });
+                product.setName(imported.name().trim());
+                product.setCategory(imported.category());
+                product.setPrice(imported.price().setScale(2, RoundingMode.HALF_UP));
+                product.setImageUrl(imported.imageUrl());
+                product.setColors(joinValues(imported.colors()));
+                product.setSizes(joinValues(imported.sizes()));
+                product.setActive(imported.active() == null || imported.active());
+                changed.add(product);
+            }
+            productRepository.saveAll(changed);
+        });
+
+        productCatalogService.load();
+        logger.info("Imported {} products; the catalog now has {} active products", products.size(), productCatalogService.size());
+        return products.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (seedLocation.isBlank() || productRepository.count() > 0) {
+            return;
+        }
+
+        Resource resource = resourceLoader.getResource(seedLocation);
+        try (InputStream in = resource.getInputStream()) {
+            List<ProductImport> products = objectMapper.readValue(in, new TypeReference<List<ProductImport>>() {});
+            importProducts(products);
+        } catch (IOException | RuntimeException e) {
+            // Orders are refused for unknown products meanwhile, so a bad seed doesn't misprice anything
+            logger.error("Could not seed the product catalog from {}", seedLocation, e);
+        }
+    }
+
+    private static void validate(int index, ProductImport product) {
+        String prefix = "Product " + index + ": ";
+        if (product == null) {
+            throw new IllegalArgumentException(prefix + "is empty");
+        }
+        if (product.id() == null || product.id() <= 0) {
+            throw new IllegalArgumentException(prefix + "id must be a positive number");
+        }
+        if (product.name() == null || product.name().isBlank()) {
+            throw new IllegalArgumentException(prefix + "name is required");
+        }
+        BigDecimal price = product.price() == null ? null : product.price().setScale(2, RoundingMode.HALF_UP);
+        if (price == null || price.signum() <= 0 || price.compareTo(MAX_PRICE) > 0) {
+            throw new IllegalArgumentException(prefix + "price must be above 0 and at most " + MAX_PRICE);
+        }
+    }
+
+    private static String joinValues(List<String> values) {
+        return values == null || values.isEmpty() ? null : String.join(",", values);
+    }
+}
@@ -0,0 +1,54 @@
+package com.styler.service;
+
+import com.styler.model.PasswordResetToken;
+import com.styler.repository.PasswordResetTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Reset tokens in the {@code password_reset_tokens} table, keyed by email, so a token
+ * issued by one instance can be used on any other. Consuming is a single conditional
+ * DELETE, so a token is accepted at most once even with concurrent attempts.
+ */
+@Component
+@ConditionalOnProperty(name = "styler.auth.reset-tokens.store", havingValue = "database")
+public class DatabaseResetTokenStore implements ResetTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseResetTokenStore.class);
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Override
+    @Transactional
+    public void put(String email, String token, Duration ttl) {
+        passwordResetTokenRepository.save(
+                new PasswordResetToken(email, ResetTokenStore.hash(token), LocalDateTime.now().plus(ttl)));
+    }
+
+    @Override
+    @Transactional
+    public boolean consume(String email, String token) {
+        return passwordResetTokenRepository.consume(email, ResetTokenStore.hash(token), LocalDateTime.now()) > 0;
+    }
+
+    // Every instance sweeps; the DELETE is idempotent, so that only costs a cheap indexed query
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${styler.auth.reset-tokens.sweep-interval-ms:60000}")
+    public int sweepExpired() {
+        int removed = passwordResetTokenRepository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            logger.debug("Removed {} expired password reset tokens", removed);
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,157 @@
+package com.styler.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of recent requests by their {@code Idempotency-Key} header, so a
+ * client retry gets the original response back instead of repeating the work.
+ *
+ * <p>The first request with a key runs; concurrent duplicates wait for its response. Only
+ * successful (2xx) responses are kept, so a failed request can be retried with the same key.
+ * Reusing a key with a different request body is rejected. Keys are held in memory, bounded
+ * by {@code styler.idempotency.max-keys} and expired after {@code ttl-seconds}, so
+ * deduplication is per instance. In the {@code cache=idempotency} meters a miss is a first
+ * execution and a hit is a replay.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> entries;
+    private final ConcurrentMap<String, Entry> entryMap;
+    private final long waitTimeoutMillis;
+    private final ObjectMapper fingerprintMapper;
+
+    public IdempotencyStore(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                            @Value("${styler.idempotency.max-keys:10000}") long maxKeys,
+                            @Value("${styler.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${styler.idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.entryMap = entries.asMap();
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        // Key order must not change the fingerprint of an otherwise identical body
+        this.fingerprintMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+
+    /**
+     * Runs {@code action} unless a request with the same key was already made in {@code scope},
+     * in which case that request's response is returned.
+     *
+     * @throws KeyReusedException if the key was used for a different request body
+     * @throws StillProcessingException if the first request hasn't finished within the wait timeout
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object requestBody, Supplier<ResponseEntity<?>> action) {
+        String storeKey = scope + ":" + key;
+        String fingerprint = fingerprint(requestBody);
+        Entry entry = new Entry(fingerprint);
+        // Through the cache rather than its map view, so the lookup counts as a hit or a miss
+        Entry existing = entries.get(storeKey, k -> entry);
+        if (existing != entry) {
+            return replay(existing, fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            entryMap.remove(storeKey, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            entryMap.remove(storeKey, entry);
+        }
+        entry.response.complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(Entry existing, String fingerprint) {
+        if (!existing.fingerprint.equals(fingerprint)) {
+            throw new KeyReusedException();
+        }
+
+        ResponseEntity<?> original;
+        try {
+            original = existing.response.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new StillProcessingException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StillProcessingException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+    }
+
+    /**
+     * SHA-256 of the request body as JSON with map keys sorted, the value compared to detect
+     * a key reused for a different request.
+     */
+    public String fingerprint(Object requestBody) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprintMapper.writeValueAsBytes(requestBody));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request body", e);
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    public static class KeyReusedException extends IllegalStateException {
+        public KeyReusedException() {
+            super(HEADER + " was already used for a different request");
+        }
+    }
+
+    public static class StillProcessingException extends IllegalStateException {
+        public StillProcessingException() {
+            super("A request with this " + HEADER + " is still being processed");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.styler.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reset tokens held in memory, keyed by email, with a second index ordered by expiry so
+ * expired tokens are swept from the front without scanning the rest.
+ *
+ * <p>At most {@code styler.auth.reset-tokens.max-entries} tokens are kept; when full, the
+ * other token closest to expiry is dropped to make room. Tokens are local to one instance and
+ * lost on restart; use the {@code database} store when running several instances.
+ */
+@Component
+@ConditionalOnProperty(name = "styler.auth.reset-tokens.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryResetTokenStore implements ResetTokenStore {
+
+    private static final Comparator<Entry> EXPIRY_ORDER =
+            Comparator.comparingLong((Entry entry) -> entry.expiresAtMillis).thenComparingLong(entry -> entry.sequence);
+
+    private final Map<String, Entry> byEmail = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byExpiry = new TreeSet<>(EXPIRY_ORDER);
+    private final AtomicLong sequence = new AtomicLong();
+    private final int maxEntries;
+
+    // Guards byExpiry and keeps both indexes in step; lookups read byEmail without locking
+    private final Object lock = new Object();
+
+    public InMemoryResetTokenStore(MeterRegistry meterRegistry,
+                                   @Value("${styler.auth.reset-tokens.max-entries:10000}") int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        Gauge.builder("styler.auth.reset-tokens", byEmail, Map::size)
+                .description("Outstanding password reset tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void put(String email, String token, Duration ttl) {
+        Entry entry = new Entry(email, ResetTokenStore.hash(token),
+                System.currentTimeMillis() + ttl.toMillis(), sequence.incrementAndGet());
+        synchronized (lock) {
+            Entry previous = byEmail.put(email, entry);
+            if (previous != null) {
+                byExpiry.remove(previous);
+            }
+            byExpiry.add(entry);
+            if (byEmail.size() > maxEntries) {
+                removeExpired(System.currentTimeMillis());
+            }
+            while (byEmail.size() > maxEntries) {
+                // Never the token just issued, even if it has the shortest TTL
+                Entry victim = byExpiry.first();
+                remove(victim != entry ? victim : byExpiry.higher(entry));
+            }
+        }
+    }
+
+    @Override
+    public boolean consume(String email, String token) {
+        Entry entry = byEmail.get(email);
+        if (entry == null || System.currentTimeMillis() >= entry.expiresAtMillis
+                || !MessageDigest.isEqual(entry.tokenHash, ResetTokenStore.hash(token).getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        synchronized (lock) {
+            // Only one of several concurrent attempts with the same token succeeds
+            return remove(entry);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${styler.auth.reset-tokens.sweep-interval-ms:60000}")
+    public int sweepExpired() {
+        synchronized (lock) {
+            return removeExpired(System.currentTimeMillis());
+        }
+    }
+
+    private int removeExpired(long now) {
+        int removed = 0;
+        while (!byExpiry.isEmpty() && byExpiry.first().expiresAtMillis <= now) {
+            remove(byExpiry.first());
+            removed++;
+        }
+        return removed;
+    }
+
+    private boolean remove(Entry entry) {
+        byExpiry.remove(entry);
+        return byEmail.remove(entry.email, entry);
+    }
+
+    private static final class Entry {
+        private final String email;
+        private final byte[] tokenHash;
+        private final long expiresAtMillis;
+        private final long sequence;
+
+        private Entry(String email, String tokenHash, long expiresAtMillis, long sequence) {
+            this.email = email;
+            this.tokenHash = tokenHash.getBytes(StandardCharsets.UTF_8);
+            this.expiresAtMillis = expiresAtMillis;
+            this.sequence = sequence;
+        }
+    }
+}
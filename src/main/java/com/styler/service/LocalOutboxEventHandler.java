@@ -0,0 +1,56 @@
+package com.styler.service;
+
+import com.styler.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * In-process handler for development and tests: logs every outbox event and keeps the
+ * most recent ones in memory. Enabled with {@code styler.outbox.local-handler.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "styler.outbox.local-handler.enabled", havingValue = "true")
+public class LocalOutboxEventHandler implements OutboxEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalOutboxEventHandler.class);
+
+    private final Deque<OutboxEvent> received = new ArrayDeque<>();
+    private final int capacity;
+
+    public LocalOutboxEventHandler(@Value("${styler.outbox.local-handler.capacity:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean handles(String eventType) {
+        return true;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        logger.info("Outbox event {} {} for {}: {}", event.getId(), event.getEventType(), event.getAggregateId(), event.getPayload());
+        synchronized (received) {
+            if (received.size() >= capacity) {
+                received.removeFirst();
+            }
+            received.addLast(event);
+        }
+    }
+
+    /**
+     * Events received so far, oldest first.
+     */
+    public List<OutboxEvent> getReceived() {
+        synchronized (received) {
+            return new ArrayList<>(received);
+        }
+    }
+}
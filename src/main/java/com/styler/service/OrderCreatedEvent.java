@@ -0,0 +1,21 @@
+package com.styler.service;
+
+import com.styler.model.Order;
+import com.styler.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox payload for {@link #TYPE}, written when an order is placed.
+ */
+public record OrderCreatedEvent(String orderId, Long userId, OrderStatus status, BigDecimal totalAmount,
+                                int itemCount, LocalDateTime orderDate) {
+
+    public static final String TYPE = "order.created";
+
+    public static OrderCreatedEvent from(Order order) {
+        return new OrderCreatedEvent(order.getOrderId(), order.getUser().getId(), order.getStatus(),
+                order.getTotalAmount(), order.getItems() == null ? 0 : order.getItems().size(), order.getOrderDate());
+    }
+}
@@ -0,0 +1,118 @@
+package com.styler.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.styler.model.OrderStatus;
+import com.styler.repository.OrderExportRow;
+import com.styler.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes orders as NDJSON or CSV straight from a database cursor, so memory use stays
+ * flat however many orders match.
+ */
+@Service
+@Profile({"prod", "dev", "default", "render-prod"})
+public class OrderExportService {
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private static final String[] CSV_HEADER = {
+        "orderId", "orderDate", "status", "userId", "userEmail", "subtotal",
+        "shippingCost", "taxAmount", "totalAmount", "estimatedDelivery", "actualDelivery"
+    };
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final ObjectWriter rowWriter;
+
+    public OrderExportService(ObjectMapper objectMapper) {
+        this.rowWriter = objectMapper.writerFor(OrderExportRow.class);
+    }
+
+    /**
+     * Writes orders placed in {@code [from, to)}, optionally only those with {@code status},
+     * oldest first.
+     *
+     * @return the number of orders written
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime from, LocalDateTime to, OrderStatus status, Format format, OutputStream out)
+            throws IOException {
+        // The writer is flushed but not closed; the container owns the response stream
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+        try (Stream<OrderExportRow> rows = orderRepository.streamForExport(from, to, status)) {
+            if (format == Format.CSV) {
+                writeCsvLine(writer, (Object[]) CSV_HEADER);
+            }
+            Iterator<OrderExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                OrderExportRow row = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvLine(writer, row.orderId(), row.orderDate(), row.status(), row.userId(), row.userEmail(),
+                            row.subtotal(), row.shippingCost(), row.taxAmount(), row.totalAmount(),
+                            row.estimatedDelivery(), row.actualDelivery());
+                } else {
+                    writer.write(rowWriter.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsvLine(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvField(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break, doubling inner quotes
+    private String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,16 @@
+package com.styler.service;
+
+import com.styler.model.Order;
+
+import java.util.List;
+
+/**
+ * One page of a user's order history, newest first.
+ * {@code nextCursor} is null when there are no older orders.
+ */
+public record OrderHistoryPage(List<Order> orders, String nextCursor) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
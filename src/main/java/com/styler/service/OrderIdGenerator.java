@@ -0,0 +1,9 @@
+package com.styler.service;
+
+/**
+ * Produces the public {@code ORD-} identifiers stored in {@code orders.order_id}.
+ */
+public interface OrderIdGenerator {
+
+    String nextOrderId();
+}
@@ -0,0 +1,261 @@
+package com.styler.service;
+
+import com.styler.model.Order;
+import com.styler.model.OrderDailyRollup;
+import com.styler.model.OrderStatus;
+import com.styler.model.User;
+import com.styler.model.UserOrderRollup;
+import com.styler.repository.OrderDailyRollupRepository;
+import com.styler.repository.OrderRepository;
+import com.styler.repository.OrderStatusRow;
+import com.styler.repository.UserOrderRollupRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains per-day and per-user order totals as orders are created and change status,
+ * so analytics reads don't scan the orders table. Cancelled orders are not counted.
+ *
+ * <p>Increments run in the caller's transaction. A missing bucket row is inserted on that
+ * transaction's own connection inside a savepoint, so a request that loses the race to
+ * create a bucket rolls back only the savepoint, and no second connection is needed.
+ *
+ * <p>Every order of a day updates the same daily bucket, whose row lock is then held
+ * until commit. Daily increments are therefore summed per transaction and applied just
+ * before it commits, keeping that lock for the commit only rather than for the whole
+ * order transaction. Outside a transaction they are applied at once.
+ */
+@Service
+@Profile({"prod", "dev", "default", "render-prod"})
+public class OrderRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRollupService.class);
+
+    @Autowired
+    private OrderDailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private UserOrderRollupRepository userRollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Transaction resource key for the daily increments waiting for commit
+    private final Object pendingDaysKey = new Object();
+
+    public void recordOrderCreated(Order order) {
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            apply(order, 1);
+        }
+    }
+
+    public void recordStatusChange(Order order, OrderStatus previousStatus) {
+        boolean wasCounted = previousStatus != OrderStatus.CANCELLED;
+        boolean isCounted = order.getStatus() != OrderStatus.CANCELLED;
+        if (wasCounted != isCounted) {
+            apply(order, isCounted ? 1 : -1);
+        }
+    }
+
+    /**
+     * Applies a bulk status change to orders that were not loaded as entities. Orders moving
+     * in or out of CANCELLED are summed per day and per user, so each bucket is updated once,
+     * in ascending key order so that transactions sharing buckets lock them in the same order.
+     */
+    public void recordStatusChanges(List<OrderStatusRow> changed, OrderStatus newStatus) {
+        Map<LocalDate, Delta> byDay = new TreeMap<>();
+        Map<Long, Delta> byUser = new TreeMap<>();
+        for (OrderStatusRow row : changed) {
+            boolean wasCounted = row.status() != OrderStatus.CANCELLED;
+            boolean isCounted = newStatus != OrderStatus.CANCELLED;
+            if (wasCounted == isCounted) {
+                continue;
+            }
+            int direction = isCounted ? 1 : -1;
+            byDay.computeIfAbsent(row.orderDate().toLocalDate(), day -> new Delta()).add(direction, row.totalAmount());
+            byUser.computeIfAbsent(row.userId(), userId -> new Delta()).add(direction, row.totalAmount());
+        }
+        byDay.forEach((day, delta) -> applyToDayBeforeCommit(day, delta.count, delta.amount));
+        byUser.forEach((userId, delta) -> applyToUser(userId, delta.count, delta.amount));
+    }
+
+    /**
+     * Orders placed at or after {@code since}. Whole days come from the daily buckets;
+     * only the partial first day is read from the orders table.
+     */
+    @Transactional(readOnly = true)
+    public long getOrderCountSince(LocalDateTime since) {
+        LocalDate firstFullDay = firstFullDay(since);
+        long count = dailyRollupRepository.sumOrderCountFrom(firstFullDay);
+        if (!since.equals(firstFullDay.atStartOfDay())) {
+            count += orderRepository.countActiveOrdersBetween(since, firstFullDay.atStartOfDay());
+        }
+        return count;
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getRevenueSince(LocalDateTime since) {
+        LocalDate firstFullDay = firstFullDay(since);
+        BigDecimal revenue = dailyRollupRepository.sumRevenueFrom(firstFullDay);
+        if (!since.equals(firstFullDay.atStartOfDay())) {
+            revenue = revenue.add(orderRepository.sumActiveRevenueBetween(since, firstFullDay.atStartOfDay()));
+        }
+        return revenue;
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getLifetimeValue(User user) {
+        return userRollupRepository.findById(user.getId())
+            .map(UserOrderRollup::getLifetimeValue)
+            .orElse(BigDecimal.ZERO);
+    }
+
+    /**
+     * Builds the rollups from the orders table the first time the application starts
+     * against a database that has orders but no rollups yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (dailyRollupRepository.count() > 0 || userRollupRepository.count() > 0 || orderRepository.count() == 0) {
+            return;
+        }
+
+        List<OrderDailyRollup> days = new ArrayList<>();
+        for (Object[] row : orderRepository.aggregateActiveOrdersByDay()) {
+            OrderDailyRollup rollup = new OrderDailyRollup((LocalDate) row[0]);
+            rollup.setOrderCount(((Number) row[1]).longValue());
+            rollup.setRevenue((BigDecimal) row[2]);
+            days.add(rollup);
+        }
+
+        List<UserOrderRollup> users = new ArrayList<>();
+        for (Object[] row : orderRepository.aggregateActiveOrdersByUser()) {
+            UserOrderRollup rollup = new UserOrderRollup((Long) row[0]);
+            rollup.setOrderCount(((Number) row[1]).longValue());
+            rollup.setLifetimeValue((BigDecimal) row[2]);
+            users.add(rollup);
+        }
+
+        dailyRollupRepository.saveAll(days);
+        userRollupRepository.saveAll(users);
+        logger.info("Backfilled order rollups for {} days and {} users", days.size(), users.size());
+    }
+
+    private void apply(Order order, int direction) {
+        BigDecimal amount = signed(direction, order.getTotalAmount());
+        applyToDayBeforeCommit(order.getOrderDate().toLocalDate(), direction, amount);
+        applyToUser(order.getUser().getId(), direction, amount);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void applyToDayBeforeCommit(LocalDate day, long count, BigDecimal amount) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyToDay(day, count, amount);
+            return;
+        }
+        Map<LocalDate, Delta> pending = (Map<LocalDate, Delta>) TransactionSynchronizationManager.getResource(pendingDaysKey);
+        if (pending == null) {
+            // Sorted, so the buckets are locked in the same order by every committing transaction
+            Map<LocalDate, Delta> days = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(pendingDaysKey, days);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    days.forEach((pendingDay, delta) -> applyToDay(pendingDay, delta.count, delta.amount));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingDaysKey);
+                }
+            });
+            pending = days;
+        }
+        pending.computeIfAbsent(day, key -> new Delta()).merge(count, amount);
+    }
+
+    private void applyToDay(LocalDate day, long count, BigDecimal amount) {
+        if (dailyRollupRepository.increment(day, count, amount) == 0) {
+            insertIfAbsent("order_daily_rollups", "rollup_date", "order_count, revenue", day);
+            dailyRollupRepository.increment(day, count, amount);
+        }
+    }
+
+    private void applyToUser(Long userId, long count, BigDecimal amount) {
+        if (userRollupRepository.increment(userId, count, amount) == 0) {
+            insertIfAbsent("user_order_rollups", "user_id", "order_count, lifetime_value", userId);
+            userRollupRepository.increment(userId, count, amount);
+        }
+    }
+
+    // Inserts an empty bucket unless one exists. The savepoint keeps a duplicate key from a
+    // concurrent insert from aborting the caller's transaction; Hibernate never sees it.
+    private void insertIfAbsent(String table, String keyColumn, String counterColumns, Object key) {
+        String sql = "INSERT INTO " + table + " (" + keyColumn + ", " + counterColumns + ") VALUES (?, 0, 0)";
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                insert.setObject(1, key);
+                insert.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                // SQLState class 23 is an integrity constraint violation: the row now exists
+                if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                    throw e;
+                }
+            }
+        });
+    }
+
+    private static BigDecimal signed(int direction, BigDecimal totalAmount) {
+        BigDecimal amount = totalAmount == null ? BigDecimal.ZERO : totalAmount;
+        return direction < 0 ? amount.negate() : amount;
+    }
+
+    private LocalDate firstFullDay(LocalDateTime since) {
+        LocalDate day = since.toLocalDate();
+        return since.toLocalTime().equals(LocalTime.MIDNIGHT) ? day : day.plusDays(1);
+    }
+
+    private static final class Delta {
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        void add(int direction, BigDecimal totalAmount) {
+            merge(direction, signed(direction, totalAmount));
+        }
+
+        void merge(long count, BigDecimal amount) {
+            this.count += count;
+            this.amount = this.amount.add(amount);
+        }
+    }
+}
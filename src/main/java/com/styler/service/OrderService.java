@@ -2,14 +2,24 @@ package com.styler.service;
 
 import com.styler.model.*;
 import com.styler.repository.OrderRepository;
+import com.styler.repository.OrderStatusRow;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @Profile({"prod", "dev", "default", "render-prod"})
@@ -18,95 +28,228 @@ public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
     
+    @Autowired
+    private OrderIdGenerator orderIdGenerator;
+    
+    @Autowired
+    private OrderRollupService orderRollupService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private PricingService pricingService;
+    
+    @Value("${styler.orders.history.default-page-size:20}")
+    private int defaultHistoryPageSize;
+    
+    @Value("${styler.orders.history.max-page-size:50}")
+    private int maxHistoryPageSize;
+    
+    @Value("${styler.orders.bulk-status.chunk-size:500}")
+    private int bulkStatusChunkSize;
+    
+    @Value("${styler.orders.bulk-status.max-orders:10000}")
+    private int bulkStatusMaxOrders;
+    
+    /**
+     * Places an order priced from the catalog; any prices on {@code items} are replaced, unless
+     * {@link PricingService#usesClientPrices()}.
+     *
+     * @throws PricingService.UnknownProductException if an item's product is not for sale
+     */
+    @Transactional
     public Order createOrder(User user, List<OrderItem> items, ShippingAddress shippingAddress, 
-                           BigDecimal subtotal, BigDecimal shippingCost, BigDecimal taxAmount) {
+                           String paymentMethod) {
         
-        String orderId = "ORD-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        PriceQuote quote = pricingService.quote(items, OrderItem::getProductId, OrderItem::getQuantity,
+                item -> PricingService.clientProduct(item.getProductId(), item.getProductName(),
+                        item.getProductCategory(), item.getImageUrl(), item.getPrice()));
+        String orderId = orderIdGenerator.nextOrderId();
         
         Order order = new Order();
         order.setOrderId(orderId);
         order.setUser(user);
-        order.setSubtotal(subtotal);
-        order.setShippingCost(shippingCost);
-        order.setTaxAmount(taxAmount);
-        order.setTotalAmount(subtotal.add(shippingCost).add(taxAmount));
+        order.setSubtotal(quote.subtotal());
+        order.setShippingCost(quote.shippingCost());
+        order.setTaxAmount(quote.taxAmount());
+        order.setTotalAmount(quote.total());
         order.setShippingAddress(shippingAddress);
         order.setEstimatedDelivery(LocalDateTime.now().plusDays(5)); // 5 days delivery
+        order.setStatus(OrderStatus.CONFIRMED);
         
-        
-        for (OrderItem item : items) {
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            PriceQuote.Line line = quote.lines().get(i);
             item.setOrder(order);
+            item.setProductName(line.productName());
+            item.setPrice(line.unitPrice());
+            if (item.getProductCategory() == null || item.getProductCategory().isEmpty()) {
+                item.setProductCategory(line.category());
+            }
         }
         order.setItems(items);
         
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderRollupService.recordOrderCreated(saved);
+        // Follow-up work runs from the outbox after commit, not in this request
+        outboxService.enqueue(OrderCreatedEvent.TYPE, saved.getOrderId(), OrderCreatedEvent.from(saved));
+        return saved;
     }
     
+    @Transactional(readOnly = true)
     public Optional<Order> findByOrderId(String orderId) {
         return orderRepository.findByOrderId(orderId);
     }
     
+    /**
+     * The order's version without loading it, for conditional reads.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(String orderId) {
+        return orderRepository.findVersionByOrderId(orderId);
+    }
+    
+    @Transactional(readOnly = true)
     public List<Order> getUserOrders(User user) {
         return orderRepository.findByUserOrderByOrderDateDesc(user);
     }
     
-    public Order createSimpleOrder(User user, List<OrderItem> items, ShippingAddress shippingAddress, 
-                                 BigDecimal totalAmount, String paymentMethod) {
-        
-        String orderId = "ORD-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    @Transactional(readOnly = true)
+    public List<Order> getUserOrderHistory(User user) {
+        return orderRepository.findOrderHistoryByUser(user);
+    }
+    
+    @Transactional(readOnly = true)
+    public OrderHistoryPage getUserOrderPage(User user, String cursor, Integer pageSize) {
+        int size = pageSize == null ? defaultHistoryPageSize : Math.max(1, Math.min(pageSize, maxHistoryPageSize));
         
-        Order order = new Order();
-        order.setOrderId(orderId);
-        order.setUser(user);
-        order.setTotalAmount(totalAmount);
-        order.setSubtotal(totalAmount); // Simplified - assume no separate shipping/tax
-        order.setShippingCost(new BigDecimal("0.00"));
-        order.setTaxAmount(new BigDecimal("0.00"));
-        order.setShippingAddress(shippingAddress);
-        order.setEstimatedDelivery(LocalDateTime.now().plusDays(5));
-        order.setStatus(OrderStatus.CONFIRMED);
+        // Fetch one extra id to know whether an older page exists
+        PageRequest window = PageRequest.of(0, size + 1);
+        List<Long> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = orderRepository.findOrderIdsByUser(user, window);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            ids = orderRepository.findOrderIdsByUserBefore(user, after.orderDate(), after.id(), window);
+        }
         
-   
-        for (OrderItem item : items) {
-            item.setOrder(order);
+        if (ids.isEmpty()) {
+            return new OrderHistoryPage(List.of(), null);
         }
-        order.setItems(items);
         
-        return orderRepository.save(order);
+        boolean hasMore = ids.size() > size;
+        List<Order> orders = orderRepository.findWithDetailsByIdIn(hasMore ? ids.subList(0, size) : ids);
+        String nextCursor = hasMore ? OrderCursor.of(orders.get(orders.size() - 1)).encode() : null;
+        return new OrderHistoryPage(orders, nextCursor);
     }
     
+    @Transactional
     public Order updateOrderStatus(String orderId, String status) {
         Optional<Order> orderOpt = orderRepository.findByOrderId(orderId);
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
+            OrderStatus previousStatus = order.getStatus();
             order.setStatus(OrderStatus.valueOf(status.toUpperCase()));
             
             if ("DELIVERED".equals(status.toUpperCase())) {
                 order.setActualDelivery(LocalDateTime.now());
             }
             
-            return orderRepository.save(order);
+            Order saved = orderRepository.save(order);
+            orderRollupService.recordStatusChange(saved, previousStatus);
+            return saved;
         }
         throw new IllegalArgumentException("Order not found: " + orderId);
     }
     
+    /**
+     * Moves many orders to {@code status} with set-based UPDATEs, without loading the orders.
+     * Each chunk of {@code styler.orders.bulk-status.chunk-size} ids commits on its own, so a
+     * failure part way leaves the earlier chunks applied. A chunk locks its rows before reading
+     * their current status, so the rollup deltas match what the UPDATE replaces even when a
+     * single-order update races with it.
+     *
+     * @return one result per distinct order id, in request order
+     */
+    public List<OrderStatusUpdateResult> updateOrderStatuses(Collection<String> orderIds, OrderStatus status) {
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        if (distinctIds.size() > bulkStatusMaxOrders) {
+            throw new IllegalArgumentException("At most " + bulkStatusMaxOrders + " orders can be updated at once");
+        }
+        
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        List<OrderStatusUpdateResult> results = new ArrayList<>(distinctIds.size());
+        for (int start = 0; start < distinctIds.size(); start += bulkStatusChunkSize) {
+            List<String> chunk = distinctIds.subList(start, Math.min(start + bulkStatusChunkSize, distinctIds.size()));
+            results.addAll(chunkTransaction.execute(tx -> updateStatusChunk(chunk, status)));
+        }
+        return results;
+    }
+    
+    private List<OrderStatusUpdateResult> updateStatusChunk(List<String> orderIds, OrderStatus status) {
+        Map<String, OrderStatusRow> rows = new HashMap<>();
+        for (OrderStatusRow row : orderRepository.findStatusRowsByOrderIdIn(orderIds)) {
+            rows.put(row.orderId(), row);
+        }
+        
+        List<OrderStatusUpdateResult> results = new ArrayList<>(orderIds.size());
+        List<OrderStatusRow> changed = new ArrayList<>();
+        for (String orderId : orderIds) {
+            OrderStatusRow row = rows.get(orderId);
+            if (row == null) {
+                results.add(new OrderStatusUpdateResult(orderId, OrderStatusUpdateResult.Outcome.NOT_FOUND, null));
+            } else if (row.status() == status) {
+                results.add(new OrderStatusUpdateResult(orderId, OrderStatusUpdateResult.Outcome.UNCHANGED, row.status()));
+            } else {
+                results.add(new OrderStatusUpdateResult(orderId, OrderStatusUpdateResult.Outcome.UPDATED, row.status()));
+                changed.add(row);
+            }
+        }
+        
+        if (!changed.isEmpty()) {
+            List<Long> ids = changed.stream().map(OrderStatusRow::id).toList();
+            if (status == OrderStatus.DELIVERED) {
+                orderRepository.markDelivered(ids, LocalDateTime.now());
+            } else {
+                orderRepository.updateStatus(ids, status);
+            }
+            orderRollupService.recordStatusChanges(changed, status);
+        }
+        return results;
+    }
+    
+    @Transactional(readOnly = true)
     public List<Order> getRecentOrders(LocalDateTime since) {
         return orderRepository.findByOrderDateBetween(since, LocalDateTime.now());
     }
     
     public long getOrderCount(LocalDateTime since) {
-        return orderRepository.countOrdersAfter(since);
+        return orderRollupService.getOrderCountSince(since);
     }
     
     public Double getTotalRevenue(LocalDateTime since) {
-        Double revenue = orderRepository.getTotalRevenueAfter(since);
-        return revenue != null ? revenue : 0.0;
+        return orderRollupService.getRevenueSince(since).doubleValue();
+    }
+    
+    /**
+     * The most recent orders with their items. Use the order export for the full table.
+     */
+    @Transactional(readOnly = true)
+    public List<Order> getLatestOrders(int limit) {
+        List<Long> ids = orderRepository.findLatestOrderIds(PageRequest.of(0, limit));
+        return ids.isEmpty() ? List.of() : orderRepository.findWithDetailsByIdIn(ids);
     }
     
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    @Transactional(readOnly = true)
+    public long countOrders() {
+        return orderRepository.count();
     }
     
+    @Transactional(readOnly = true)
     public boolean hasRecentPurchase(User user, int days) {
         LocalDateTime since = LocalDateTime.now().minusDays(days);
         List<Order> recentOrders = orderRepository.findRecentOrdersByUser(user, since);
@@ -114,9 +257,6 @@ public class OrderService {
     }
     
     public BigDecimal getCustomerLifetimeValue(User user) {
-        List<Order> userOrders = getUserOrders(user);
-        return userOrders.stream()
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return orderRollupService.getLifetimeValue(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.styler.service;
+
+import com.styler.model.OrderStatus;
+
+/**
+ * Outcome of a bulk status change for one order id.
+ */
+public record OrderStatusUpdateResult(String orderId, Outcome outcome, OrderStatus previousStatus) {
+
+    public enum Outcome {
+        UPDATED, UNCHANGED, NOT_FOUND
+    }
+}
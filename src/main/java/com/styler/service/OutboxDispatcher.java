@@ -0,0 +1,193 @@
+package com.styler.service;
+
+import com.styler.model.OutboxEvent;
+import com.styler.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delivers outbox events to the {@link OutboxEventHandler}s in batches, in id order.
+ *
+ * <p>A batch is claimed in a short transaction with {@code SELECT ... FOR UPDATE SKIP LOCKED}
+ * (where the database supports it), which pushes the events' next attempt out by
+ * {@code styler.outbox.lease-ms}; handlers then run outside any transaction. Delivered
+ * events are deleted. A failed event is retried with exponential backoff, starting at
+ * {@code backoff-initial-ms} and capped at {@code backoff-max-ms}, until
+ * {@code max-attempts}, after which it is marked failed and kept for
+ * {@code failed-retention-hours}. If an instance dies mid-batch, its events are picked up
+ * again once the lease runs out.
+ *
+ * <p>Failures are written back with a conditional UPDATE on the attempt count of the claim.
+ * A handler that outlives its lease may find the event re-claimed by another dispatcher, or
+ * delivered and deleted; its failure is then dropped rather than overwriting that claim or
+ * bringing the event back.
+ */
+@Component
+@Profile({"prod", "dev", "default", "render-prod"})
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired(required = false)
+    private List<OutboxEventHandler> handlers = List.of();
+
+    @Value("${styler.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${styler.outbox.max-batches-per-poll:10}")
+    private int maxBatchesPerPoll;
+
+    @Value("${styler.outbox.lease-ms:60000}")
+    private long leaseMillis;
+
+    @Value("${styler.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${styler.outbox.backoff-initial-ms:1000}")
+    private long backoffInitialMillis;
+
+    @Value("${styler.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMillis;
+
+    @Value("${styler.outbox.failed-retention-hours:168}")
+    private long failedRetentionHours;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+
+    public OutboxDispatcher(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.delivered = Counter.builder("styler.outbox.events").tag("outcome", "delivered")
+                .description("Outbox events by delivery outcome").register(meterRegistry);
+        this.retried = Counter.builder("styler.outbox.events").tag("outcome", "retried")
+                .description("Outbox events by delivery outcome").register(meterRegistry);
+        this.failed = Counter.builder("styler.outbox.events").tag("outcome", "failed")
+                .description("Outbox events by delivery outcome").register(meterRegistry);
+    }
+
+    /**
+     * Drains due events until a batch comes back short or {@code max-batches-per-poll} is reached.
+     */
+    @Scheduled(fixedDelayString = "${styler.outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        for (int i = 0; i < maxBatchesPerPoll; i++) {
+            if (dispatchBatch() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    int dispatchBatch() {
+        List<OutboxEvent> claimed = claim();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> deliveredIds = new ArrayList<>();
+        List<OutboxEvent> failures = new ArrayList<>();
+        for (OutboxEvent event : claimed) {
+            try {
+                deliver(event);
+                deliveredIds.add(event.getId());
+            } catch (Exception e) {
+                recordFailure(event, e);
+                failures.add(event);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!deliveredIds.isEmpty()) {
+                outboxEventRepository.deleteByIdIn(deliveredIds);
+            }
+            for (OutboxEvent event : failures) {
+                int updated = outboxEventRepository.recordFailure(event.getId(), event.getAttempts(),
+                        event.getNextAttemptAt(), event.getLastError(), event.getFailedAt());
+                if (updated == 0) {
+                    logger.warn("Outbox event {} was re-claimed or removed while attempt {} ran, not recording its failure",
+                            event.getId(), event.getAttempts());
+                }
+            }
+        });
+        delivered.increment(deliveredIds.size());
+        return claimed.size();
+    }
+
+    private List<OutboxEvent> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.findDueForUpdate(now, PageRequest.of(0, batchSize));
+            LocalDateTime leaseUntil = now.plus(Duration.ofMillis(leaseMillis));
+            for (OutboxEvent event : due) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setNextAttemptAt(leaseUntil);
+            }
+            return due;
+        });
+    }
+
+    private void deliver(OutboxEvent event) throws Exception {
+        boolean handled = false;
+        for (OutboxEventHandler handler : handlers) {
+            if (handler.handles(event.getEventType())) {
+                handler.handle(event);
+                handled = true;
+            }
+        }
+        if (!handled) {
+            logger.debug("No handler for outbox event {} of type {}, dropping it", event.getId(), event.getEventType());
+        }
+    }
+
+    private void recordFailure(OutboxEvent event, Exception e) {
+        String error = e.getClass().getName() + ": " + e.getMessage();
+        event.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        if (event.getAttempts() >= maxAttempts) {
+            event.setFailedAt(LocalDateTime.now());
+            failed.increment();
+            logger.error("Outbox event {} ({}) failed after {} attempts, giving up",
+                    event.getId(), event.getEventType(), event.getAttempts(), e);
+        } else {
+            event.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMillis(event.getAttempts()))));
+            retried.increment();
+            logger.warn("Outbox event {} ({}) failed on attempt {}, retrying: {}",
+                    event.getId(), event.getEventType(), event.getAttempts(), error);
+        }
+    }
+
+    // initial * 2^(attempts - 1), capped; attempts starts at 1
+    private long backoffMillis(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        return Math.min(backoffMaxMillis, backoffInitialMillis << doublings);
+    }
+
+    @Scheduled(fixedDelayString = "${styler.outbox.cleanup-interval-ms:3600000}")
+    public void removeOldFailures() {
+        Integer removed = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteFailedBefore(LocalDateTime.now().minusHours(failedRetentionHours)));
+        if (removed != null && removed > 0) {
+            logger.info("Removed {} failed outbox events older than {} hours", removed, failedRetentionHours);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.styler.service;
+
+import com.styler.model.OutboxEvent;
+
+/**
+ * Receives outbox events after the transaction that wrote them has committed. Delivery
+ * is at least once: an event is retried until every handler for its type succeeds, so a
+ * handler may see the same event again and must tolerate that.
+ */
+public interface OutboxEventHandler {
+
+    boolean handles(String eventType);
+
+    void handle(OutboxEvent event) throws Exception;
+}
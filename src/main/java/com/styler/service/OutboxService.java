@@ -0,0 +1,40 @@
+package com.styler.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.styler.model.OutboxEvent;
+import com.styler.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes events to the outbox table for {@link OutboxDispatcher} to deliver after commit.
+ */
+@Service
+@Profile({"prod", "dev", "default", "render-prod"})
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Adds an event to the caller's transaction, so it is delivered only if that
+     * transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueue(String eventType, String aggregateId, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + eventType + " event payload", e);
+        }
+        return outboxEventRepository.save(new OutboxEvent(eventType, aggregateId, json));
+    }
+}
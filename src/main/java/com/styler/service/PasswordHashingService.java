@@ -0,0 +1,133 @@
+package com.styler.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes and checks passwords with BCrypt at the cost set by {@code styler.auth.bcrypt.cost}.
+ *
+ * <p>Hashing runs on a small fixed pool ({@code styler.auth.hashing.threads}, one per core by
+ * default) with a bounded queue, so a burst of logins queues for CPU instead of every request
+ * thread hashing at once. When the queue is full or a hash waits longer than
+ * {@code timeout-ms}, {@link HashingUnavailableException} is thrown.
+ *
+ * <p>Rows written before passwords were hashed still hold plaintext. They are compared in
+ * constant time and {@link #needsRehash} reports them, along with hashes made at a lower cost,
+ * so callers can store a new hash after a successful login.
+ */
+@Component
+public class PasswordHashingService {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    // Checked against when the account doesn't exist, so an unknown email takes as long as a wrong password
+    private final String dummyHash;
+
+    public PasswordHashingService(MeterRegistry meterRegistry,
+                                  @Value("${styler.auth.bcrypt.cost:10}") int cost,
+                                  @Value("${styler.auth.hashing.threads:0}") int threads,
+                                  @Value("${styler.auth.hashing.queue-capacity:200}") int queueCapacity,
+                                  @Value("${styler.auth.hashing.timeout-ms:5000}") long timeoutMillis) {
+        this.encoder = new BCryptPasswordEncoder(cost);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.timeoutMillis = timeoutMillis;
+        this.dummyHash = encoder.encode("dummy-password");
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing");
+    }
+
+    public String hash(String rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks {@code rawPassword} against a stored BCrypt hash or legacy plaintext password.
+     * A null {@code storedPassword} costs as much as a real check and never matches.
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (storedPassword == null) {
+            run(() -> encoder.matches(rawPassword, dummyHash));
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return run(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    /**
+     * Whether {@code storedPassword} is plaintext or was hashed at a lower cost than configured.
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isHashed(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    private boolean isHashed(String storedPassword) {
+        return BCRYPT_HASH.matcher(storedPassword).matches();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new HashingUnavailableException();
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HashingUnavailableException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashingUnavailableException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public static class HashingUnavailableException extends IllegalStateException {
+        public HashingUnavailableException() {
+            super("Too many password checks in progress, please try again");
+        }
+    }
+}
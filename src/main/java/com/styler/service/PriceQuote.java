@@ -0,0 +1,16 @@
+package com.styler.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Server-side prices for a cart or order, from the catalog. All amounts have scale 2,
+ * and {@code lines} are in the order they were given.
+ */
+public record PriceQuote(List<Line> lines, BigDecimal subtotal, BigDecimal shippingCost,
+                         BigDecimal taxAmount, BigDecimal total) {
+
+    public record Line(Long productId, String productName, String category, BigDecimal unitPrice,
+                       int quantity, BigDecimal lineTotal) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.styler.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Prices carts and orders from {@link ProductCatalogService}, ignoring any price the client sent.
+ *
+ * <p>Line totals and the subtotal are summed in whole cents; tax is
+ * {@code styler.pricing.tax-rate} of the subtotal, rounded half up to the cent. Shipping is
+ * {@code styler.pricing.shipping.flat-fee} unless the subtotal reaches
+ * {@code styler.pricing.shipping.free-over} (when that is above zero), and nothing for an
+ * empty cart.
+ *
+ * <p>{@code styler.pricing.client-price-fallback} (off by default, and meant only for a store
+ * whose catalog hasn't been imported yet) prices lines from the name and positive price the
+ * client sent for as long as the catalog holds no products. The first catalog load that finds
+ * products switches pricing over to the catalog, after which unknown products are rejected
+ * again.
+ */
+@Service
+public class PricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingService.class);
+
+    // Largest amount the precision 10, scale 2 money columns can hold
+    private static final long MAX_AMOUNT_CENTS = 9_999_999_999L;
+
+    /**
+     * Thrown when a line names a product that is not in the catalog or no longer sold.
+     */
+    public static class UnknownProductException extends IllegalArgumentException {
+        private final Long productId;
+
+        public UnknownProductException(Long productId) {
+            super("Product " + productId + " is not available");
+            this.productId = productId;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+    }
+
+    private final ProductCatalogService catalog;
+    private final long flatShippingCents;
+    private final long freeShippingOverCents;
+    private final BigDecimal taxRate;
+    private final boolean clientPriceFallback;
+    private final AtomicBoolean fallbackLogged = new AtomicBoolean();
+
+    public PricingService(ProductCatalogService catalog,
+                          @Value("${styler.pricing.shipping.flat-fee:0.00}") BigDecimal flatShipping,
+                          @Value("${styler.pricing.shipping.free-over:0.00}") BigDecimal freeShippingOver,
+                          @Value("${styler.pricing.tax-rate:0}") BigDecimal taxRate,
+                          @Value("${styler.pricing.client-price-fallback:false}") boolean clientPriceFallback) {
+        if (flatShipping.signum() < 0 || freeShippingOver.signum() < 0 || taxRate.signum() < 0) {
+            throw new IllegalArgumentException("styler.pricing shipping and tax settings must not be negative");
+        }
+        this.catalog = catalog;
+        this.flatShippingCents = toCents(flatShipping);
+        this.freeShippingOverCents = toCents(freeShippingOver);
+        this.taxRate = taxRate;
+        this.clientPriceFallback = clientPriceFallback;
+    }
+
+    /**
+     * Looks up a product's current catalog entry, or the client's version of it while
+     * {@link #usesClientPrices()}.
+     *
+     * @param clientProduct the product as the client described it, or null when it gave no price
+     * @throws UnknownProductException if the product is not for sale
+     */
+    public ProductCatalogService.CatalogProduct product(Long productId,
+                                                        Supplier<ProductCatalogService.CatalogProduct> clientProduct) {
+        return catalog.find(productId).or(() -> {
+            if (!usesClientPrices()) {
+                return Optional.empty();
+            }
+            if (fallbackLogged.compareAndSet(false, true)) {
+                logger.warn("Product catalog is empty; pricing from client-supplied prices until it is loaded");
+            }
+            return Optional.ofNullable(clientProduct.get());
+        }).orElseThrow(() -> new UnknownProductException(productId));
+    }
+
+    /**
+     * Whether prices sent by clients are being accepted, which is only while the fallback is
+     * enabled and the catalog is empty.
+     */
+    public boolean usesClientPrices() {
+        return clientPriceFallback && catalog.size() == 0;
+    }
+
+    /**
+     * A product as a client described it, for {@link #product(Long, Supplier)}; null without a
+     * name or with a price that is not positive or too large for the money columns.
+     */
+    public static ProductCatalogService.CatalogProduct clientProduct(Long productId, String name, String category,
+                                                                     String imageUrl, BigDecimal price) {
+        if (productId == null || name == null || name.isBlank() || price == null || price.signum() <= 0
+                || price.compareTo(BigDecimal.valueOf(MAX_AMOUNT_CENTS, 2)) > 0) {
+            return null;
+        }
+        return new ProductCatalogService.CatalogProduct(productId, name, category, imageUrl, toCents(price),
+                List.of(), List.of());
+    }
+
+    /**
+     * Prices the given lines in one pass; {@code clientProduct} describes a line as the client
+     * sent it, for use while {@link #usesClientPrices()}.
+     *
+     * @throws UnknownProductException if a line's product is not for sale
+     * @throws IllegalArgumentException if a quantity is not positive or the total is too large
+     */
+    public <T> PriceQuote quote(List<T> lines, Function<T, Long> productId, ToIntFunction<T> quantity,
+                                Function<T, ProductCatalogService.CatalogProduct> clientProduct) {
+        List<PriceQuote.Line> priced = new ArrayList<>(lines.size());
+        long subtotalCents = 0;
+        try {
+            for (T line : lines) {
+                ProductCatalogService.CatalogProduct product = product(productId.apply(line), () -> clientProduct.apply(line));
+                int count = quantity.applyAsInt(line);
+                if (count <= 0) {
+                    throw new IllegalArgumentException("Quantity for product " + product.id() + " must be positive");
+                }
+                long lineCents = Math.multiplyExact(product.priceCents(), count);
+                subtotalCents = Math.addExact(subtotalCents, lineCents);
+                priced.add(new PriceQuote.Line(product.id(), product.name(), product.category(),
+                        product.price(), count, BigDecimal.valueOf(lineCents, 2)));
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Order total is too large");
+        }
+
+        if (subtotalCents > MAX_AMOUNT_CENTS) {
+            throw new IllegalArgumentException("Order total is too large");
+        }
+
+        long shippingCents = shippingCents(lines.isEmpty(), subtotalCents);
+        BigDecimal subtotal = BigDecimal.valueOf(subtotalCents, 2);
+        BigDecimal tax = subtotal.multiply(taxRate).setScale(2, RoundingMode.HALF_UP);
+        if (tax.compareTo(BigDecimal.valueOf(MAX_AMOUNT_CENTS, 2)) > 0) {
+            throw new IllegalArgumentException("Order total is too large");
+        }
+        long totalCents = subtotalCents + shippingCents + tax.unscaledValue().longValueExact();
+        if (totalCents > MAX_AMOUNT_CENTS) {
+            throw new IllegalArgumentException("Order total is too large");
+        }
+        return new PriceQuote(priced, subtotal, BigDecimal.valueOf(shippingCents, 2), tax,
+                BigDecimal.valueOf(totalCents, 2));
+    }
+
+    private long shippingCents(boolean empty, long subtotalCents) {
+        if (empty || (freeShippingOverCents > 0 && subtotalCents >= freeShippingOverCents)) {
+            return 0;
+        }
+        return flatShippingCents;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
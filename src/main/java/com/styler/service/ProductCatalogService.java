@@ -0,0 +1,348 @@
+package com.styler.service;
+
+import com.styler.model.Product;
+import com.styler.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory copy of the active products, keyed by id, with an inverted index for faceted
+ * filtering by category, color and size.
+ *
+ * <p>Products are numbered densely in id order, and each facet value maps to a bitset of
+ * the products that have it, so a filter is a few word-wise ANDs and ORs and counts are
+ * popcounts. Facet values are matched case-insensitively.
+ *
+ * <p>The whole table is loaded at startup. Every {@code styler.catalog.refresh-interval-ms}
+ * only products whose {@code updated_at} moved past the last one seen are read back, going
+ * {@code refresh-overlap-ms} further back to catch rows from transactions that committed
+ * late; when any changed, the index is rebuilt in memory. Readers see an immutable snapshot
+ * that is swapped whole, so lookups and searches never lock.
+ */
+@Service
+@DependsOnDatabaseInitialization
+public class ProductCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalogService.class);
+
+    public enum Facet {
+        CATEGORY("category"), COLOR("color"), SIZE("size");
+
+        private final String parameter;
+
+        Facet(String parameter) {
+            this.parameter = parameter;
+        }
+
+        public String getParameter() {
+            return parameter;
+        }
+    }
+
+    /**
+     * A product as sold, with the price held as a count of cents.
+     */
+    public record CatalogProduct(Long id, String name, String category, String imageUrl, long priceCents,
+                                 List<String> colors, List<String> sizes) {
+
+        public BigDecimal price() {
+            return BigDecimal.valueOf(priceCents, 2);
+        }
+
+        List<String> values(Facet facet) {
+            switch (facet) {
+                case CATEGORY:
+                    return category == null ? List.of() : List.of(category);
+                case COLOR:
+                    return colors;
+                default:
+                    return sizes;
+            }
+        }
+    }
+
+    /**
+     * One page of search results, with per-value counts for each facet. A facet's counts
+     * apply the other facets' filters but not its own, so they show what selecting another
+     * value would add.
+     */
+    public record CatalogPage(List<CatalogProduct> products, int total, int page, int pageSize,
+                              Map<String, Map<String, Integer>> facets) {
+    }
+
+    private final ProductRepository productRepository;
+    private final Duration refreshOverlap;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    private volatile Snapshot snapshot = Snapshot.of(Map.of());
+    private LocalDateTime lastUpdatedAt;
+
+    public ProductCatalogService(ProductRepository productRepository, MeterRegistry meterRegistry,
+                                 @Value("${styler.catalog.refresh-overlap-ms:5000}") long refreshOverlapMillis,
+                                 @Value("${styler.catalog.default-page-size:24}") int defaultPageSize,
+                                 @Value("${styler.catalog.max-page-size:100}") int maxPageSize) {
+        this.productRepository = productRepository;
+        this.refreshOverlap = Duration.ofMillis(refreshOverlapMillis);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        Gauge.builder("styler.catalog.products", this, catalog -> catalog.snapshot.products.length)
+                .description("Active products in the in-memory catalog")
+                .register(meterRegistry);
+    }
+
+    public Optional<CatalogProduct> find(Long productId) {
+        return productId == null ? Optional.empty() : Optional.ofNullable(snapshot.byId.get(productId));
+    }
+
+    public int size() {
+        return snapshot.products.length;
+    }
+
+    /**
+     * Products matching every given facet, where a facet matches if the product has any of
+     * its values; facets that are absent or empty do not filter.
+     */
+    public CatalogPage search(Map<Facet, ? extends Collection<String>> filters, Integer page, Integer pageSize) {
+        int size = pageSize == null ? defaultPageSize : Math.max(1, Math.min(pageSize, maxPageSize));
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        Snapshot current = snapshot;
+
+        Map<Facet, long[]> masks = new EnumMap<>(Facet.class);
+        for (Facet facet : Facet.values()) {
+            Collection<String> values = filters.get(facet);
+            if (values != null && !values.isEmpty()) {
+                masks.put(facet, current.union(facet, values));
+            }
+        }
+
+        long[] matches = current.intersection(masks, null);
+        int total = Bits.count(matches);
+        List<CatalogProduct> products = new ArrayList<>(Math.min(size, total));
+        long skip = (long) pageNumber * size;
+        for (int ordinal = Bits.next(matches, 0); ordinal >= 0 && products.size() < size; ordinal = Bits.next(matches, ordinal + 1)) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                products.add(current.products[ordinal]);
+            }
+        }
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (Facet facet : Facet.values()) {
+            long[] others = masks.containsKey(facet) ? current.intersection(masks, facet) : matches;
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (Map.Entry<String, long[]> value : current.index.get(facet).entrySet()) {
+                int count = Bits.countAnd(others, value.getValue());
+                if (count > 0) {
+                    counts.put(value.getKey(), count);
+                }
+            }
+            facets.put(facet.getParameter(), counts);
+        }
+        return new CatalogPage(products, total, pageNumber, size, facets);
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        List<Product> all = productRepository.findAll();
+        Map<Long, CatalogProduct> loaded = new HashMap<>(all.size() * 2);
+        lastUpdatedAt = null;
+        apply(loaded, all);
+        snapshot = Snapshot.of(loaded);
+        logger.info("Loaded {} active products into the catalog", loaded.size());
+    }
+
+    @Scheduled(fixedDelayString = "${styler.catalog.refresh-interval-ms:30000}",
+               initialDelayString = "${styler.catalog.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        if (lastUpdatedAt == null) {
+            load();
+            return;
+        }
+        List<Product> changed = productRepository.findByUpdatedAtAfter(lastUpdatedAt.minus(refreshOverlap));
+        if (changed.isEmpty()) {
+            return;
+        }
+        Map<Long, CatalogProduct> next = new HashMap<>(snapshot.byId);
+        apply(next, changed);
+        snapshot = Snapshot.of(next);
+        logger.debug("Refreshed {} products in the catalog", changed.size());
+    }
+
+    private void apply(Map<Long, CatalogProduct> target, List<Product> changed) {
+        for (Product product : changed) {
+            if (lastUpdatedAt == null || product.getUpdatedAt().isAfter(lastUpdatedAt)) {
+                lastUpdatedAt = product.getUpdatedAt();
+            }
+            if (!product.isActive() || product.getPrice() == null) {
+                target.remove(product.getId());
+                continue;
+            }
+            long cents = product.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            target.put(product.getId(), new CatalogProduct(product.getId(), product.getName(),
+                    product.getCategory(), product.getImageUrl(), cents,
+                    splitValues(product.getColors()), splitValues(product.getSizes())));
+        }
+    }
+
+    private static List<String> splitValues(String values) {
+        if (values == null || values.isBlank()) {
+            return List.of();
+        }
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String value : values.split(",")) {
+            if (!value.isBlank()) {
+                distinct.add(value.trim());
+            }
+        }
+        return List.copyOf(distinct);
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+        final CatalogProduct[] products;
+        final Map<Long, CatalogProduct> byId;
+        final Map<Facet, Map<String, long[]>> index;
+        final long[] all;
+
+        private Snapshot(CatalogProduct[] products, Map<Long, CatalogProduct> byId,
+                         Map<Facet, Map<String, long[]>> index, long[] all) {
+            this.products = products;
+            this.byId = byId;
+            this.index = index;
+            this.all = all;
+        }
+
+        static Snapshot of(Map<Long, CatalogProduct> byId) {
+            CatalogProduct[] products = byId.values().toArray(new CatalogProduct[0]);
+            Arrays.sort(products, (a, b) -> Long.compare(a.id(), b.id()));
+
+            int words = Bits.words(products.length);
+            Map<Facet, Map<String, long[]>> index = new EnumMap<>(Facet.class);
+            for (Facet facet : Facet.values()) {
+                Map<String, long[]> byValue = new TreeMap<>();
+                for (int ordinal = 0; ordinal < products.length; ordinal++) {
+                    for (String value : products[ordinal].values(facet)) {
+                        Bits.set(byValue.computeIfAbsent(normalize(value), key -> new long[words]), ordinal);
+                    }
+                }
+                index.put(facet, byValue);
+            }
+            long[] all = new long[words];
+            for (int ordinal = 0; ordinal < products.length; ordinal++) {
+                Bits.set(all, ordinal);
+            }
+            return new Snapshot(products, Map.copyOf(byId), index, all);
+        }
+
+        long[] union(Facet facet, Collection<String> values) {
+            long[] result = new long[all.length];
+            Map<String, long[]> byValue = index.get(facet);
+            for (String value : values) {
+                long[] bits = value == null ? null : byValue.get(normalize(value));
+                if (bits != null) {
+                    Bits.or(result, bits);
+                }
+            }
+            return result;
+        }
+
+        // AND of every mask except the excluded facet's; all products when there are none
+        long[] intersection(Map<Facet, long[]> masks, Facet excluded) {
+            long[] result = all.clone();
+            for (Map.Entry<Facet, long[]> mask : masks.entrySet()) {
+                if (mask.getKey() != excluded) {
+                    Bits.and(result, mask.getValue());
+                }
+            }
+            return result;
+        }
+    }
+
+    // Fixed-size bitsets as long[], so counts of intersections need no temporary sets
+    private static final class Bits {
+
+        static int words(int bits) {
+            return (bits + 63) >>> 6;
+        }
+
+        static void set(long[] bits, int index) {
+            bits[index >>> 6] |= 1L << index;
+        }
+
+        static void or(long[] target, long[] other) {
+            for (int i = 0; i < target.length; i++) {
+                target[i] |= other[i];
+            }
+        }
+
+        static void and(long[] target, long[] other) {
+            for (int i = 0; i < target.length; i++) {
+                target[i] &= other[i];
+            }
+        }
+
+        static int count(long[] bits) {
+            int count = 0;
+            for (long word : bits) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        static int countAnd(long[] a, long[] b) {
+            int count = 0;
+            for (int i = 0; i < a.length; i++) {
+                count += Long.bitCount(a[i] & b[i]);
+            }
+            return count;
+        }
+
+        // Index of the first set bit at or after from, or -1
+        static int next(long[] bits, int from) {
+            int word = from >>> 6;
+            if (word >= bits.length) {
+                return -1;
+            }
+            long current = bits[word] & (-1L << from);
+            while (true) {
+                if (current != 0) {
+                    return (word << 6) + Long.numberOfTrailingZeros(current);
+                }
+                if (++word == bits.length) {
+                    return -1;
+                }
+                current = bits[word];
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.styler.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * Per-route request latency, with the number of SQL statements each request ran and
+ * entities it loaded through Hibernate, plus a ring buffer of recent slow requests with
+ * their SQL.
+ *
+ * <p>Published as {@code styler.requests} (timer with p50/p99/p999 and histogram buckets),
+ * {@code styler.requests.statements} and {@code styler.requests.entities}, each tagged
+ * with {@code method} and {@code route}. Requests taking at least
+ * {@code styler.metrics.slow-request-ms} are kept in the slow-request buffer. Statements
+ * are counted on the request thread, so work done on other threads isn't attributed.
+ *
+ * <p>Slow-request samples hold only the route template and SQL with its literals replaced
+ * by {@code ?}, so ids, emails and other values from requests never reach the buffer.
+ */
+@Component
+public class RequestMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    // Quoted strings, with '' as an escaped quote, and numbers that aren't part of an identifier
+    private static final Pattern SQL_LITERAL = Pattern.compile("'(?:[^']|'')*'|(?<![\\w.$])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+
+    private final MeterRegistry meterRegistry;
+    private final long slowRequestNanos;
+    private final int maxSqlPerRequest;
+
+    private final ThreadLocal<RequestStats> current = new ThreadLocal<>();
+    private final AtomicReferenceArray<SlowRequest> slowRequests;
+    private final AtomicLong slowRequestCount = new AtomicLong();
+
+    public RequestMetrics(MeterRegistry meterRegistry,
+                          @Value("${styler.metrics.slow-request-ms:500}") long slowRequestMillis,
+                          @Value("${styler.metrics.slow-request-samples:100}") int slowRequestSamples,
+                          @Value("${styler.metrics.max-sql-per-request:50}") int maxSqlPerRequest) {
+        this.meterRegistry = meterRegistry;
+        this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMillis);
+        this.maxSqlPerRequest = maxSqlPerRequest;
+        this.slowRequests = new AtomicReferenceArray<>(Math.max(1, slowRequestSamples));
+    }
+
+    /**
+     * Starts counting statements and entity loads on the current thread.
+     */
+    public void begin() {
+        current.set(new RequestStats());
+    }
+
+    /**
+     * Stops counting on the current thread and records the request.
+     */
+    public void end(String method, String route, int status, long durationNanos) {
+        RequestStats stats = current.get();
+        current.remove();
+        if (stats == null) {
+            return;
+        }
+
+        Timer.builder("styler.requests")
+                .description("Request latency per route")
+                .tags("method", method, "route", route)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("styler.requests.statements")
+                .description("SQL statements run by Hibernate per request")
+                .tags("method", method, "route", route)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(stats.statements);
+        DistributionSummary.builder("styler.requests.entities")
+                .description("Entities loaded by Hibernate per request")
+                .tags("method", method, "route", route)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry)
+                .record(stats.entitiesLoaded);
+
+        if (durationNanos >= slowRequestNanos) {
+            SlowRequest sample = new SlowRequest(Instant.now(), method, route, status,
+                    Duration.ofNanos(durationNanos).toMillis(), stats.statements, stats.entitiesLoaded,
+                    Collections.unmodifiableList(stats.sql));
+            slowRequests.set((int) (slowRequestCount.getAndIncrement() % slowRequests.length()), sample);
+        }
+    }
+
+    public void onStatement(String sql) {
+        RequestStats stats = current.get();
+        if (stats != null) {
+            stats.statements++;
+            if (stats.sql.size() < maxSqlPerRequest) {
+                stats.sql.add(withoutLiterals(sql));
+            }
+        }
+    }
+
+    public void onEntityLoaded() {
+        RequestStats stats = current.get();
+        if (stats != null) {
+            stats.entitiesLoaded++;
+        }
+    }
+
+    /**
+     * The most recent slow requests, newest first.
+     */
+    public List<SlowRequest> getSlowRequests() {
+        List<SlowRequest> samples = new ArrayList<>();
+        for (int i = 0; i < slowRequests.length(); i++) {
+            SlowRequest sample = slowRequests.get(i);
+            if (sample != null) {
+                samples.add(sample);
+            }
+        }
+        samples.sort(Comparator.comparing(SlowRequest::time).reversed());
+        return samples;
+    }
+
+    public long getSlowRequestCount() {
+        return slowRequestCount.get();
+    }
+
+    static String withoutLiterals(String sql) {
+        return sql == null ? null : SQL_LITERAL.matcher(sql).replaceAll("?");
+    }
+
+    public record SlowRequest(Instant time, String method, String route, int status,
+                              long durationMillis, int statements, int entitiesLoaded, List<String> sql) {}
+
+    // Only touched by the request thread
+    private static final class RequestStats {
+        private int statements;
+        private int entitiesLoaded;
+        private final List<String> sql = new ArrayList<>();
+    }
+}
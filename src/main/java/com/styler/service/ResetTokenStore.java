@@ -0,0 +1,48 @@
+package com.styler.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Holds at most one outstanding password reset token per email until it is used or
+ * expires. Chosen with {@code styler.auth.reset-tokens.store}: {@code memory} (default,
+ * per instance) or {@code database} (shared by all instances).
+ */
+public interface ResetTokenStore {
+
+    /**
+     * Stores {@code token} for {@code email}, replacing any earlier token for that email.
+     */
+    void put(String email, String token, Duration ttl);
+
+    /**
+     * Removes the token for {@code email} if it equals {@code token} and hasn't expired.
+     * A token can be consumed only once.
+     *
+     * @return whether the token was valid
+     */
+    boolean consume(String email, String token);
+
+    /**
+     * Removes expired tokens.
+     *
+     * @return the number of tokens removed
+     */
+    int sweepExpired();
+
+    /**
+     * Tokens are stored and compared as SHA-256 hashes, so a leaked store can't be used
+     * to reset passwords.
+     */
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.styler.service;
+
+import com.styler.model.User;
+
+/**
+ * The user a request's session token was issued to.
+ */
+public record SessionPrincipal(Long userId, String email) {
+
+    /**
+     * A detached {@link User} carrying only the id and email, for passing to services that
+     * only need to reference the user. Must not be saved or read for other fields.
+     */
+    public User toUserReference() {
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(email);
+        return user;
+    }
+}
@@ -0,0 +1,126 @@
+package com.styler.service;
+
+import com.styler.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Issues and verifies stateless session tokens carrying a user's id and email, signed with
+ * HMAC-SHA256, so requests can be attributed to a user without a database lookup.
+ *
+ * <p>A token is {@code <kid>.<payload>.<signature>}, where the payload is the base64url of
+ * {@code <userId>:<expiresAt>:<email>}. Keys come from {@code styler.auth.session.keys} as
+ * comma-separated {@code kid:secret} pairs: the first key signs new tokens and every listed
+ * key is accepted, so a key is rotated by putting a new one first and removing the old one
+ * once its tokens have expired. Without configured keys a random key is generated at
+ * startup, and tokens stop working on restart and aren't shared between instances.
+ */
+@Component
+public class SessionTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+    private final String signingKid;
+    private final long ttlSeconds;
+
+    public SessionTokenService(@Value("${styler.auth.session.keys:}") List<String> keyPairs,
+                               @Value("${styler.auth.session.ttl-seconds:86400}") long ttlSeconds) {
+        for (String pair : keyPairs) {
+            String trimmed = pair.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf(':');
+            if (separator <= 0 || trimmed.substring(0, separator).contains(".")) {
+                throw new IllegalArgumentException("Session keys must be kid:secret pairs, with no '.' in the kid");
+            }
+            byte[] secret = trimmed.substring(separator + 1).getBytes(StandardCharsets.UTF_8);
+            if (secret.length < MIN_SECRET_BYTES) {
+                throw new IllegalArgumentException("Session key secrets must be at least " + MIN_SECRET_BYTES + " bytes");
+            }
+            keys.put(trimmed.substring(0, separator), new SecretKeySpec(secret, ALGORITHM));
+        }
+        if (keys.isEmpty()) {
+            byte[] secret = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(secret);
+            keys.put("local", new SecretKeySpec(secret, ALGORITHM));
+            logger.warn("No styler.auth.session.keys configured, session tokens are only valid on this instance until restart");
+        }
+        this.signingKid = keys.keySet().iterator().next();
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public SessionToken issue(User user) {
+        Instant expiresAt = Instant.now().plusSeconds(ttlSeconds);
+        String payload = user.getId() + ":" + expiresAt.getEpochSecond() + ":" + user.getEmail();
+        String unsigned = signingKid + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return new SessionToken(unsigned + "." + ENCODER.encodeToString(sign(keys.get(signingKid), unsigned)), expiresAt);
+    }
+
+    /**
+     * @return the token's principal, or empty if the token is malformed, signed with an
+     *         unknown key, tampered with or expired
+     */
+    public Optional<SessionPrincipal> verify(String token) {
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        if (first <= 0 || last <= first) {
+            return Optional.empty();
+        }
+        SecretKeySpec key = keys.get(token.substring(0, first));
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        try {
+            String unsigned = token.substring(0, last);
+            byte[] signature = DECODER.decode(token.substring(last + 1));
+            if (!MessageDigest.isEqual(signature, sign(key, unsigned))) {
+                return Optional.empty();
+            }
+
+            String[] fields = new String(DECODER.decode(token.substring(first + 1, last)), StandardCharsets.UTF_8).split(":", 3);
+            if (fields.length != 3 || Instant.now().getEpochSecond() >= Long.parseLong(fields[1])) {
+                return Optional.empty();
+            }
+            return Optional.of(new SessionPrincipal(Long.valueOf(fields[0]), fields[2]));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or numbers; NumberFormatException is an IllegalArgumentException
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(SecretKeySpec key, String data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign session token", e);
+        }
+    }
+
+    public record SessionToken(String value, Instant expiresAt) {}
+}
@@ -0,0 +1,83 @@
+package com.styler.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style order ids: 41 bits of milliseconds since 2024-01-01, a 10 bit node id
+ * and a 12 bit per-millisecond sequence, rendered as 13 Crockford base32 characters
+ * after the {@code ORD-} prefix.
+ *
+ * <p>Ids are strictly increasing within a node without taking a lock. When the sequence
+ * for a millisecond is exhausted, or the clock moves backwards, the generator keeps
+ * counting into the following millisecond instead of waiting. Each instance must be
+ * given a distinct {@code styler.orders.node-id}; by default it is derived from the host name.
+ */
+@Component
+public class TimeOrderedOrderIdGenerator implements OrderIdGenerator {
+
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String PREFIX = "ORD-";
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+
+    // Last issued (timestamp << SEQUENCE_BITS | sequence)
+    private final AtomicLong state = new AtomicLong();
+
+    public TimeOrderedOrderIdGenerator(@Value("${styler.orders.node-id:-1}") long nodeId) {
+        long node = nodeId >= 0 ? nodeId : defaultNodeId();
+        if (node > MAX_NODE_ID) {
+            throw new IllegalArgumentException("styler.orders.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = node << SEQUENCE_BITS;
+    }
+
+    @Override
+    public String nextOrderId() {
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        long prev;
+        long next;
+        do {
+            prev = state.get();
+            // A new millisecond restarts the sequence; otherwise increment and let overflow carry into the timestamp
+            next = now > (prev >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : prev + 1;
+        } while (!state.compareAndSet(prev, next));
+
+        long id = ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+        return encode(id);
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static long defaultNodeId() {
+        String host = System.getenv("HOSTNAME");
+        if (host == null || host.isEmpty()) {
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                return 0;
+            }
+        }
+        return host.hashCode() & MAX_NODE_ID;
+    }
+}
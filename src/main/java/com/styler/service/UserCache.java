@@ -0,0 +1,82 @@
+package com.styler.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.styler.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-based read-through cache of users by id and by email.
+ * Entries may be up to the TTL behind the database and are only invalidated on this
+ * instance, so they serve identity lookups; password checks and writes load the row.
+ * The cache keeps its own copy of each user and hands every caller a fresh copy, so
+ * no two requests share, or change, the same instance.
+ * Hit, miss and eviction counts are published as the {@code cache.*} meters
+ * tagged {@code cache=users.byId} and {@code cache=users.byEmail}.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<Long, User> byId;
+    private final Cache<String, User> byEmail;
+
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${styler.users.cache.max-size:10000}") long maxSize,
+                     @Value("${styler.users.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "users.byEmail");
+    }
+
+    public Optional<User> getById(Long id, Supplier<Optional<User>> loader) {
+        User cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached.copy());
+        }
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    public Optional<User> getByEmail(String email, Supplier<Optional<User>> loader) {
+        User cached = byEmail.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached.copy());
+        }
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    public void invalidate(User user) {
+        if (user.getId() != null) {
+            byId.invalidate(user.getId());
+        }
+        if (user.getEmail() != null) {
+            byEmail.invalidate(user.getEmail());
+        }
+    }
+
+    private void put(User user) {
+        User copy = user.copy();
+        byId.put(copy.getId(), copy);
+        byEmail.put(copy.getEmail(), copy);
+    }
+}
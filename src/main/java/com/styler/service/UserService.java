@@ -3,14 +3,18 @@ package com.styler.service;
 import com.styler.model.User;
 import com.styler.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 @Profile({"prod", "dev", "default", "render-prod"})
@@ -19,16 +23,39 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+    
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private ResetTokenStore resetTokenStore;
+    
+    @Value("${styler.auth.reset-tokens.ttl-minutes:15}")
+    private long resetTokenTtlMinutes;
+    
     
-    private Map<String, String> resetTokens = new ConcurrentHashMap<>();
-    private Map<String, LocalDateTime> tokenExpiry = new ConcurrentHashMap<>();
+    // Cache misses load in a read-write transaction, which always uses the primary,
+    // so a row from a lagging read replica is never cached
+    private final TransactionTemplate primaryRead;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    public UserService(PlatformTransactionManager transactionManager) {
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
     
     public User createUser(String email, String password) {
         if (userRepository.existsByEmail(email)) {
             throw new IllegalArgumentException("User with email " + email + " already exists");
         }
         
-        User user = new User(email, password);
+        User user = new User(email, hashNewPassword(password));
         return userRepository.save(user);
     }
     
@@ -37,7 +64,7 @@ public class UserService {
             throw new IllegalArgumentException("User with email " + email + " already exists");
         }
         
-        User user = new User(email, password);
+        User user = new User(email, hashNewPassword(password));
         user.setFirstName(firstName);
         user.setLastName(lastName);
         user.setPhone(phone);
@@ -45,50 +72,97 @@ public class UserService {
     }
     
     public Optional<User> authenticateUser(String email, String password) {
-        Optional<User> userOpt = userRepository.findByEmail(email);
+        // Not from the cache: a password changed on another instance must stop working at once
+        Optional<User> userOpt = primaryRead.execute(status -> userRepository.findByEmail(email));
         
-        if (userOpt.isPresent()) {
+        // Unknown emails still pay for a hash check, so response time doesn't reveal which accounts exist
+        String storedPassword = userOpt.map(User::getPassword).orElse(null);
+        if (passwordHashingService.matches(password, storedPassword)) {
             User user = userOpt.get();
-           
-            if (password.equals(user.getPassword())) {
-                
-                user.setLastLogin(LocalDateTime.now());
-                userRepository.save(user);
-                
-                return Optional.of(user);
+            
+            if (passwordHashingService.needsRehash(storedPassword)) {
+                rehashPassword(user, storedPassword, password);
             }
+            
+            // The row is updated by the next batched flush, not inside the login request
+            LocalDateTime now = LocalDateTime.now();
+            user.setLastLogin(now);
+            lastLoginRecorder.record(user.getId(), now);
+            
+            return Optional.of(user);
         }
         return Optional.empty();
     }
     
+    // Replaces a plaintext or lower-cost hash with one at the configured cost. The update
+    // only applies if the password hasn't changed since it was read, so a concurrent reset wins.
+    private void rehashPassword(User user, String storedPassword, String rawPassword) {
+        String hashed = passwordHashingService.hash(rawPassword);
+        Integer updated = transactionTemplate.execute(status ->
+                userRepository.updatePassword(user.getId(), storedPassword, hashed));
+        if (updated != null && updated > 0) {
+            user.setPassword(hashed);
+        } else {
+            userCache.invalidate(user);
+        }
+    }
+    
+    private String hashNewPassword(String password) {
+        checkPasswordLength(password);
+        return passwordHashingService.hash(password);
+    }
+    
+    // Checked here because the entity only ever sees the hash
+    private void checkPasswordLength(String password) {
+        if (password == null || password.length() < 6) {
+            throw new IllegalArgumentException("Password must be at least 6 characters");
+        }
+    }
+    
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userCache.getByEmail(email, () -> primaryRead.execute(status -> userRepository.findByEmail(email)));
     }
     
     public Optional<User> findById(Long id) {
-        return userRepository.findById(id);
+        return userCache.getById(id, () -> primaryRead.execute(status -> userRepository.findById(id)));
     }
     
-    public User updateUser(User user) {
-        return userRepository.save(user);
+    // Applies the changes to the current row rather than a cached copy, so saving it
+    // cannot write back a stale password
+    public Optional<User> updateUser(String email, Consumer<User> changes) {
+        Optional<User> updated = transactionTemplate.execute(status -> userRepository.findByEmail(email).map(user -> {
+            changes.accept(user);
+            return userRepository.save(user);
+        }));
+        updated.ifPresent(userCache::invalidate);
+        return updated;
     }
     
+    @Transactional(readOnly = true)
     public List<User> getNewUsers(LocalDateTime since) {
         return userRepository.findByJoinDateBetween(since, LocalDateTime.now());
     }
     
+    @Transactional(readOnly = true)
     public List<User> getInactiveUsers(LocalDateTime lastLoginBefore) {
         return userRepository.findInactiveUsers(lastLoginBefore);
     }
     
+    @Transactional(readOnly = true)
     public long getNewUserCount(LocalDateTime since) {
         return userRepository.countNewUsersAfter(since);
     }
     
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public long countUsers() {
+        return userRepository.count();
+    }
+    
     public String generatePasswordResetToken(String email) {
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (!userOpt.isPresent()) {
@@ -98,28 +172,18 @@ public class UserService {
         
         String resetToken = UUID.randomUUID().toString();
         
-       
-        resetTokens.put(email, resetToken);
-        tokenExpiry.put(email, LocalDateTime.now().plusMinutes(15));
+        // Replaces any earlier token for this email
+        resetTokenStore.put(email, resetToken, Duration.ofMinutes(resetTokenTtlMinutes));
         
   
         return resetToken;
     }
     
     public boolean resetPassword(String email, String resetToken, String newPassword) {
-      
-        if (!resetTokens.containsKey(email)) {
-            return false;
-        }
-        
-        String storedToken = resetTokens.get(email);
-        LocalDateTime expiry = tokenExpiry.get(email);
+        // Before consuming the token, so a too-short password doesn't use it up
+        checkPasswordLength(newPassword);
         
-        
-        if (!storedToken.equals(resetToken) || LocalDateTime.now().isAfter(expiry)) {
-           
-            resetTokens.remove(email);
-            tokenExpiry.remove(email);
+        if (!resetTokenStore.consume(email, resetToken)) {
             return false;
         }
         
@@ -127,12 +191,9 @@ public class UserService {
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            user.setPassword(newPassword); 
+            user.setPassword(passwordHashingService.hash(newPassword));
             userRepository.save(user);
-            
-           
-            resetTokens.remove(email);
-            tokenExpiry.remove(email);
+            userCache.invalidate(user);
             
             return true;
         }
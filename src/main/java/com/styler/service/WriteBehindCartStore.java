@@ -0,0 +1,404 @@
+package com.styler.service;
+
+import com.styler.model.CartItem;
+import com.styler.model.User;
+import com.styler.repository.CartItemRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process cart store that keeps carts in memory keyed by user id and writes
+ * them back to the database in the background.
+ *
+ * <p>Repeated saves of the same cart between flushes are coalesced into one write.
+ * Dirty carts are flushed every {@code styler.cart.write-behind.flush-interval-ms},
+ * on the scheduler as soon as more than {@code max-dirty-carts} are pending, and on
+ * shutdown. Saves never flush on the request thread, so carts that keep failing to
+ * write don't slow down every other save.
+ * The store is local to one instance, so only enable it for single-instance or
+ * sticky-session deployments.
+ *
+ * <p>Each cached cart carries its own ETag, taken from a sequence that is never reused
+ * within the process and prefixed with a random per-process id, so conditional reads are
+ * answered from memory.
+ */
+@Component
+@Profile({"prod", "dev", "default", "render-prod"})
+@ConditionalOnProperty(name = "styler.cart.store", havingValue = "write-behind")
+public class WriteBehindCartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    private static final String TAG_PREFIX = Long.toString(new SecureRandom().nextLong() >>> 1, 36) + "-";
+    private static final AtomicLong TAG_SEQUENCE = new AtomicLong();
+
+    /**
+     * Thrown when a user's pending cart could not be written before a direct database change,
+     * which would otherwise be overwritten by the cached cart on a later flush.
+     */
+    public static class CartFlushException extends IllegalStateException {
+        public CartFlushException(Long userId) {
+            super("Pending changes to the cart of user " + userId + " could not be saved, please retry");
+        }
+    }
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartWriter cartWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${styler.cart.write-behind.max-carts:10000}")
+    private int maxCarts;
+
+    @Value("${styler.cart.write-behind.max-dirty-carts:1000}")
+    private int maxDirtyCarts;
+
+    @Value("${styler.cart.write-behind.flush-batch-size:100}")
+    private int flushBatchSize;
+
+    private final Map<Long, CartEntry> carts = new ConcurrentHashMap<>();
+    private final AtomicInteger dirtyCarts = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public List<CartItem> get(User user) {
+        return entryFor(user).read();
+    }
+
+    public CartSnapshot getSnapshot(User user) {
+        return entryFor(user).snapshot();
+    }
+
+    /**
+     * The ETag value of this user's cached cart, or null if it is not cached.
+     */
+    public String currentTag(User user) {
+        CartEntry entry = carts.get(user.getId());
+        return entry == null ? null : entry.currentTag();
+    }
+
+    private CartEntry entryFor(User user) {
+        CartEntry entry = carts.get(user.getId());
+        if (entry == null) {
+            // Read-write transaction so the cart loads from the primary, never a lagging replica
+            List<CartItem> stored = new TransactionTemplate(transactionManager)
+                    .execute(status -> cartItemRepository.findByUser(user));
+            CartEntry loaded = new CartEntry(user, copyOf(stored));
+            entry = carts.putIfAbsent(user.getId(), loaded);
+            if (entry == null) {
+                entry = loaded;
+                evictIfFull();
+            }
+        }
+        return entry;
+    }
+
+    public void put(User user, List<CartItem> items) {
+        int result;
+        do {
+            CartEntry entry = carts.computeIfAbsent(user.getId(), id -> new CartEntry(user, List.of()));
+            result = entry.write(items);
+        } while (result == CartEntry.RETIRED);
+
+        if (result == CartEntry.BECAME_DIRTY) {
+            dirtyCarts.incrementAndGet();
+        }
+        evictIfFull();
+
+        if (dirtyCarts.get() > maxDirtyCarts) {
+            requestFlush();
+        }
+    }
+
+    // At most one extra flush is queued however many saves cross the threshold
+    private void requestFlush() {
+        if (!flushRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskScheduler.schedule(() -> {
+                try {
+                    flushAll();
+                } finally {
+                    flushRequested.set(false);
+                }
+            }, Instant.now());
+        } catch (RuntimeException e) {
+            flushRequested.set(false);
+            logger.warn("Could not schedule a cart flush, leaving it to the next interval", e);
+        }
+    }
+
+    /**
+     * Writes this user's pending cart, if any, before a direct database change.
+     *
+     * @throws CartFlushException if the pending cart could not be written
+     */
+    public void flush(User user) {
+        CartEntry entry = carts.get(user.getId());
+        if (entry == null) {
+            return;
+        }
+        long revision = entry.pendingRevision();
+        if (revision == 0) {
+            return;
+        }
+        flushEntries(List.of(entry));
+        if (!entry.isFlushedThrough(revision)) {
+            throw new CartFlushException(user.getId());
+        }
+    }
+
+    public void evict(User user) {
+        CartEntry entry = carts.get(user.getId());
+        if (entry != null && entry.retireIfClean()) {
+            carts.remove(user.getId(), entry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${styler.cart.write-behind.flush-interval-ms:5000}")
+    public void flushAll() {
+        List<CartEntry> dirty = new ArrayList<>();
+        for (CartEntry entry : carts.values()) {
+            if (entry.isDirty()) {
+                dirty.add(entry);
+            }
+        }
+
+        for (int start = 0; start < dirty.size(); start += flushBatchSize) {
+            flushEntries(dirty.subList(start, Math.min(start + flushBatchSize, dirty.size())));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Flushing {} pending carts before shutdown", dirtyCarts.get());
+        flushAll();
+    }
+
+    public int getDirtyCartCount() {
+        return dirtyCarts.get();
+    }
+
+    private void flushEntries(List<CartEntry> entries) {
+        flushLock.lock();
+        try {
+            Map<User, List<CartItem>> pending = new IdentityHashMap<>();
+            Map<User, CartEntry> entryByUser = new IdentityHashMap<>();
+            Map<User, Long> revisionByUser = new IdentityHashMap<>();
+            for (CartEntry entry : entries) {
+                synchronized (entry) {
+                    if (entry.isDirty()) {
+                        pending.put(entry.user, entry.read());
+                        entryByUser.put(entry.user, entry);
+                        revisionByUser.put(entry.user, entry.revision);
+                    }
+                }
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            try {
+                cartWriter.writeCarts(pending).forEach((user, written) ->
+                        markFlushed(entryByUser.get(user), revisionByUser.get(user), written));
+            } catch (RuntimeException batchFailure) {
+                // Retry one by one so a single bad cart cannot hold back the rest of the batch
+                logger.warn("Batched cart flush failed, retrying {} carts individually", pending.size(), batchFailure);
+                pending.forEach((user, items) -> {
+                    try {
+                        markFlushed(entryByUser.get(user), revisionByUser.get(user), cartWriter.writeCart(user, items));
+                    } catch (RuntimeException e) {
+                        logger.error("Failed to flush cart for user {}", user.getId(), e);
+                    }
+                });
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void markFlushed(CartEntry entry, long revision, List<CartItem> written) {
+        if (entry.markFlushed(revision, copyOf(written))) {
+            dirtyCarts.decrementAndGet();
+        }
+    }
+
+    private void evictIfFull() {
+        int excess = carts.size() - maxCarts;
+        // Nothing is evictable while every cached cart is waiting to be written
+        if (excess <= 0 || carts.size() <= dirtyCarts.get() || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            // Evict a little more than needed so a full store doesn't rescan on every new cart.
+            // The least recently used clean entries are picked with a bounded heap, most recent
+            // on top, instead of sorting the whole store
+            int limit = excess + maxCarts / 10;
+            PriorityQueue<CartEntry> oldest = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingLong((CartEntry entry) -> entry.lastAccess).reversed());
+            for (CartEntry entry : carts.values()) {
+                if (!entry.isDirty()) {
+                    oldest.add(entry);
+                    if (oldest.size() > limit) {
+                        oldest.poll();
+                    }
+                }
+            }
+            for (CartEntry entry : oldest) {
+                if (entry.retireIfClean()) {
+                    carts.remove(entry.user.getId(), entry);
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static List<CartItem> copyOf(List<CartItem> items) {
+        List<CartItem> copies = new ArrayList<>(items.size());
+        for (CartItem item : items) {
+            CartItem copy = new CartItem();
+            copy.setId(item.getId());
+            copy.setProductId(item.getProductId());
+            copy.setProductName(item.getProductName());
+            copy.setPrice(item.getPrice());
+            copy.setQuantity(item.getQuantity());
+            copy.setColor(item.getColor());
+            copy.setSize(item.getSize());
+            copy.setCategory(item.getCategory());
+            copy.setImage(item.getImage());
+            copy.setVersion(item.getVersion());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private static final class CartEntry {
+        static final int STILL_DIRTY = 0;
+        static final int BECAME_DIRTY = 1;
+        static final int RETIRED = -1;
+
+        private final User user;
+        private List<CartItem> items;
+        private String tag;
+        private long revision;
+        private long flushedRevision;
+        private boolean retired;
+        private volatile long lastAccess;
+
+        private CartEntry(User user, List<CartItem> items) {
+            this.user = user;
+            this.items = items;
+            this.tag = nextTag();
+            this.lastAccess = System.nanoTime();
+        }
+
+        synchronized List<CartItem> read() {
+            lastAccess = System.nanoTime();
+            return copyOf(items);
+        }
+
+        synchronized CartSnapshot snapshot() {
+            lastAccess = System.nanoTime();
+            return new CartSnapshot(copyOf(items), tag);
+        }
+
+        synchronized String currentTag() {
+            return retired ? null : tag;
+        }
+
+        /**
+         * @return {@link #BECAME_DIRTY} if the entry went from clean to dirty, or
+         *         {@link #RETIRED} if it was evicted and the caller must retry
+         */
+        synchronized int write(List<CartItem> newItems) {
+            if (retired) {
+                return RETIRED;
+            }
+            boolean wasDirty = isDirty();
+            items = copyOf(newItems);
+            tag = nextTag();
+            revision++;
+            lastAccess = System.nanoTime();
+            return wasDirty ? STILL_DIRTY : BECAME_DIRTY;
+        }
+
+        /**
+         * Marks a clean entry as evicted so that late writers move to a fresh entry.
+         */
+        synchronized boolean retireIfClean() {
+            if (!isDirty()) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        /**
+         * @return true if the entry went from dirty to clean
+         */
+        synchronized boolean markFlushed(long flushed, List<CartItem> written) {
+            if (flushed <= flushedRevision) {
+                return false;
+            }
+            flushedRevision = flushed;
+            if (revision == flushed) {
+                // Nothing changed while writing, so adopt the stored lines with their ids
+                items = written;
+                tag = nextTag();
+                return true;
+            }
+            return false;
+        }
+
+        synchronized boolean isDirty() {
+            return revision > flushedRevision;
+        }
+
+        // The revision a flush would have to write, or 0 when clean
+        synchronized long pendingRevision() {
+            return isDirty() ? revision : 0;
+        }
+
+        synchronized boolean isFlushedThrough(long flushed) {
+            return flushedRevision >= flushed;
+        }
+
+        private static String nextTag() {
+            return TAG_PREFIX + TAG_SEQUENCE.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- Sample catalog for the dev profile: products 1-50 at a spread of prices, categories,
+-- colors and sizes
+INSERT INTO products (id, name, category, price, image_url, colors, sizes, active, updated_at)
+SELECT X,
+       'Product ' || X,
+       CASE MOD(X, 4) WHEN 0 THEN 'tops' WHEN 1 THEN 'bottoms' WHEN 2 THEN 'dresses' ELSE 'accessories' END,
+       CAST(9.99 + MOD(X, 10) * 10 AS DECIMAL(10, 2)),
+       'https://cdn.styler.example/products/' || X || '.jpg',
+       CASE MOD(X, 3) WHEN 0 THEN 'black,white' WHEN 1 THEN 'blue' ELSE 'red,black,green' END,
+       CASE WHEN MOD(X, 4) = 3 THEN 'one size' WHEN MOD(X, 2) = 0 THEN 'S,M,L' ELSE 'M,L,XL' END,
+       TRUE,
+       CURRENT_TIMESTAMP
+FROM SYSTEM_RANGE(1, 50);
@@ -0,0 +1,160 @@
+package com.styler.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and a replica; each holds a marker
+ * row naming itself, so every read shows which one served it.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void createDatabases() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @AfterEach
+    void dropDatabases() {
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndWritesToThePrimary() {
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, List.of(replica), 30_000);
+        Harness harness = new Harness(new LazyConnectionDataSourceProxy(routing));
+        harness.warmUp();
+        long primaryBefore = routing.getPrimaryConnectionCount();
+
+        assertThat(harness.inTransaction(true)).isEqualTo("replica");
+        assertThat(harness.inTransaction(false)).isEqualTo("primary");
+        assertThat(harness.withoutTransaction()).isEqualTo("primary");
+
+        // A write inside a read-write transaction lands on the primary only
+        harness.readWrite.executeWithoutResult(status -> harness.jdbc.update("UPDATE marker SET name = 'written'"));
+        assertThat(new JdbcTemplate(primary).queryForObject("SELECT name FROM marker", String.class)).isEqualTo("written");
+        assertThat(new JdbcTemplate(replica).queryForObject("SELECT name FROM marker", String.class)).isEqualTo("replica");
+
+        assertThat(routing.getReplicaConnectionCount()).isEqualTo(1);
+        assertThat(routing.getPrimaryConnectionCount() - primaryBefore).isEqualTo(3);
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimaryAndIsSkipped() {
+        DataSource missing = new DriverManagerDataSource("jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE", "sa", "");
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, List.of(missing), 60_000);
+        Harness harness = new Harness(new LazyConnectionDataSourceProxy(routing));
+        harness.warmUp();
+        long primaryBefore = routing.getPrimaryConnectionCount();
+
+        assertThat(harness.inTransaction(true)).isEqualTo("primary");
+        assertThat(routing.getAvailableReplicaCount()).isZero();
+
+        assertThat(harness.inTransaction(true)).isEqualTo("primary");
+        assertThat(routing.getReplicaConnectionCount()).isZero();
+        assertThat(routing.getPrimaryConnectionCount() - primaryBefore).isEqualTo(2);
+    }
+
+    @Test
+    void replicasAreUsedRoundRobin() {
+        DataSource second = database("second-replica");
+        try {
+            ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, List.of(replica, second), 30_000);
+            Harness harness = new Harness(new LazyConnectionDataSourceProxy(routing));
+
+            assertThat(List.of(harness.inTransaction(true), harness.inTransaction(true), harness.inTransaction(true)))
+                    .containsExactly("replica", "second-replica", "replica");
+        } finally {
+            new JdbcTemplate(second).execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void postProcessorWrapsTheDataSourceBeanWhenReplicasAreConfigured() throws Exception {
+        String replicaUrl = "jdbc:h2:mem:replica-pool-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        HikariDataSource primaryPool = new HikariDataSource();
+        primaryPool.setJdbcUrl(((DriverManagerDataSource) primary).getUrl());
+        primaryPool.setUsername("sa");
+
+        ReadReplicaDataSourcePostProcessor postProcessor = new ReadReplicaDataSourcePostProcessor(mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(postProcessor, "replicaUrls", List.of(replicaUrl));
+        ReflectionTestUtils.setField(postProcessor, "replicaUsername", "sa");
+        ReflectionTestUtils.setField(postProcessor, "replicaPassword", "");
+        ReflectionTestUtils.setField(postProcessor, "replicaConnectionTimeoutMillis", 2000L);
+        ReflectionTestUtils.setField(postProcessor, "replicaRetryIntervalMillis", 30_000L);
+        try {
+            assertThat(postProcessor.postProcessAfterInitialization(primaryPool, "otherDataSource")).isSameAs(primaryPool);
+
+            Object wrapped = postProcessor.postProcessAfterInitialization(primaryPool, "dataSource");
+            assertThat(wrapped).isInstanceOf(LazyConnectionDataSourceProxy.class);
+
+            DataSource routed = (DataSource) wrapped;
+            new JdbcTemplate(new DriverManagerDataSource(replicaUrl, "sa", "")).execute(
+                    "CREATE TABLE marker (name VARCHAR(32)); INSERT INTO marker VALUES ('pooled-replica')");
+            Harness harness = new Harness(routed);
+            assertThat(harness.inTransaction(true)).isEqualTo("pooled-replica");
+            assertThat(harness.inTransaction(false)).isEqualTo("primary");
+            assertThat(routed.unwrap(ReadReplicaRoutingDataSource.class).getReplicaConnectionCount()).isEqualTo(1);
+        } finally {
+            postProcessor.destroy();
+            primaryPool.close();
+        }
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute(
+                "CREATE TABLE marker (name VARCHAR(32)); INSERT INTO marker VALUES ('" + name + "')");
+        return dataSource;
+    }
+
+    private static final class Harness {
+        final JdbcTemplate jdbc;
+        final TransactionTemplate readOnly;
+        final TransactionTemplate readWrite;
+
+        Harness(DataSource dataSource) {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        // The proxy reads the default auto-commit and isolation from one primary connection on first use
+        void warmUp() {
+            withoutTransaction();
+        }
+
+        String inTransaction(boolean readOnlyTransaction) {
+            return (readOnlyTransaction ? readOnly : readWrite).execute(status -> withoutTransaction());
+        }
+
+        String withoutTransaction() {
+            return jdbc.queryForObject("SELECT name FROM marker", String.class);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.styler.config;
+
+import com.styler.model.CartItem;
+import com.styler.model.Order;
+import com.styler.model.OrderItem;
+import com.styler.model.OrderStatus;
+import com.styler.model.ShippingAddress;
+import com.styler.model.User;
+import com.styler.repository.CartItemRepository;
+import com.styler.service.OrderService;
+import com.styler.service.UserService;
+import com.styler.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("dev")
+@Import(StatementCounter.class)
+class VersionColumnBackfillTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private VersionColumnBackfill versionColumnBackfill;
+
+    @Test
+    void cartItemsInsertedWithoutVersionStartAtZeroAndCanBeUpdated() {
+        long id = insertCartItem();
+
+        assertThat(version(id)).isZero();
+        updateQuantity(id, 3);
+        assertThat(version(id)).isEqualTo(1);
+    }
+
+    @Test
+    void backfillRepairsNullVersionsFromANullableColumn() {
+        // The column as an earlier release created it
+        jdbcTemplate.execute("ALTER TABLE cart_items ALTER COLUMN version SET NULL");
+        try {
+            long id = insertCartItem();
+            jdbcTemplate.update("UPDATE cart_items SET version = NULL WHERE id = ?", id);
+
+            versionColumnBackfill.backfill();
+
+            assertThat(version(id)).isZero();
+            updateQuantity(id, 2);
+            assertThat(version(id)).isEqualTo(1);
+        } finally {
+            jdbcTemplate.update("UPDATE cart_items SET version = 0 WHERE version IS NULL");
+            jdbcTemplate.execute("ALTER TABLE cart_items ALTER COLUMN version SET NOT NULL");
+        }
+    }
+
+    @Test
+    void backfilledOrdersGetAVersionThatBulkStatusUpdatesAdvance() {
+        User user = userService.createUser("version-" + UUID.randomUUID() + "@example.com", "password123");
+        Order order = orderService.createOrder(user, List.of(new OrderItem(null, 1L, null, null, 1)),
+                new ShippingAddress("Test", "User", "1 Test Road", "Pune", "MH", "411001"), "COD");
+
+        jdbcTemplate.execute("ALTER TABLE orders ALTER COLUMN version SET NULL");
+        try {
+            jdbcTemplate.update("UPDATE orders SET version = NULL WHERE order_id = ?", order.getOrderId());
+
+            versionColumnBackfill.backfill();
+
+            assertThat(orderService.findVersion(order.getOrderId())).contains(0L);
+            orderService.updateOrderStatuses(List.of(order.getOrderId()), OrderStatus.SHIPPED);
+            // The order's ETag is its version, so it must move with the status
+            assertThat(orderService.findVersion(order.getOrderId())).contains(1L);
+        } finally {
+            jdbcTemplate.update("UPDATE orders SET version = 0 WHERE version IS NULL");
+            jdbcTemplate.execute("ALTER TABLE orders ALTER COLUMN version SET NOT NULL");
+        }
+    }
+
+    private long insertCartItem() {
+        User user = userService.createUser("version-" + UUID.randomUUID() + "@example.com", "password123");
+        long id = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1000000 FROM cart_items", Long.class);
+        jdbcTemplate.update("INSERT INTO cart_items (id, product_id, product_name, price, quantity, user_id) VALUES (?, 1, 'Shirt', 19.99, 1, ?)",
+                id, user.getId());
+        return id;
+    }
+
+    private void updateQuantity(long id, int quantity) {
+        transactionTemplate.executeWithoutResult(status -> {
+            CartItem item = cartItemRepository.findById(id).orElseThrow();
+            item.setQuantity(quantity);
+        });
+    }
+
+    private Long version(long id) {
+        return jdbcTemplate.queryForObject("SELECT version FROM cart_items WHERE id = ?", Long.class, id);
+    }
+}
@@ -0,0 +1,38 @@
+package com.styler.controller;
+
+import com.styler.service.PasswordHashingService;
+import com.styler.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderControllerGuestCheckoutTest {
+
+    @Test
+    void busyHashingWhileCreatingGuestIsServiceUnavailable() {
+        UserService userService = mock(UserService.class);
+        when(userService.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userService.createUser(anyString(), anyString(), anyString(), anyString(), anyString()))
+                .thenThrow(new PasswordHashingService.HashingUnavailableException());
+        OrderController controller = new OrderController();
+        ReflectionTestUtils.setField(controller, "userService", userService);
+
+        ResponseEntity<?> response = controller.createOrder(Map.of(
+                "userEmail", "guest@example.com",
+                "items", List.of(Map.of("productId", 1, "quantity", 1)),
+                "shippingAddress", Map.of("fullName", "Guest Buyer")), null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody()).isInstanceOfSatisfying(Map.class, body -> assertThat(body.get("success")).isEqualTo(false));
+    }
+}
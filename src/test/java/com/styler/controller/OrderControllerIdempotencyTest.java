@@ -0,0 +1,97 @@
+package com.styler.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.styler.model.Order;
+import com.styler.model.OrderStatus;
+import com.styler.model.User;
+import com.styler.service.IdempotencyStore;
+import com.styler.service.OrderService;
+import com.styler.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderControllerIdempotencyTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final OrderService orderService = mock(OrderService.class);
+    private final OrderController controller = new OrderController();
+    private final AtomicLong ids = new AtomicLong();
+
+    OrderControllerIdempotencyTest() {
+        IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), new ObjectMapper(), 100, 60, 1000);
+        ReflectionTestUtils.setField(controller, "userService", userService);
+        ReflectionTestUtils.setField(controller, "orderService", orderService);
+        ReflectionTestUtils.setField(controller, "idempotencyStore", store);
+
+        when(userService.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userService.createUser(anyString(), anyString(), anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    User user = new User(invocation.getArgument(0), "hash");
+                    user.setId(ids.incrementAndGet());
+                    return user;
+                });
+        when(orderService.createOrder(any(), anyList(), any(), anyString())).thenAnswer(invocation -> {
+            Order order = new Order();
+            order.setId(ids.incrementAndGet());
+            order.setOrderId("ORD-" + order.getId());
+            order.setUser(invocation.getArgument(0));
+            order.setTotalAmount(new BigDecimal("25.00"));
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setOrderDate(LocalDateTime.now());
+            order.setItems(new ArrayList<>());
+            order.setShippingAddress(invocation.getArgument(2));
+            return order;
+        });
+    }
+
+    @Test
+    void guestRetryWithTheSameKeyIsDeduplicated() {
+        ResponseEntity<?> first = controller.createOrder(guestCheckout("guest@example.com"), "retry-1", null);
+        ResponseEntity<?> retry = controller.createOrder(guestCheckout("guest@example.com"), "retry-1", null);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getBody()).isSameAs(first.getBody());
+        verify(userService, times(1)).createUser(anyString(), anyString(), anyString(), anyString(), anyString());
+        verify(orderService, times(1)).createOrder(any(), anyList(), any(), anyString());
+    }
+
+    @Test
+    void anotherGuestReusingTheKeyPlacesItsOwnOrder() {
+        ResponseEntity<?> first = controller.createOrder(guestCheckout("first@example.com"), "retry-1", null);
+        ResponseEntity<?> other = controller.createOrder(guestCheckout("second@example.com"), "retry-1", null);
+
+        assertThat(other.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(other.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+        assertThat(other.getBody()).isNotSameAs(first.getBody());
+        verify(orderService, times(2)).createOrder(any(), anyList(), any(), anyString());
+    }
+
+    private static Map<String, Object> guestCheckout(String email) {
+        return Map.of(
+                "userEmail", email,
+                "items", List.of(Map.of("productId", 1, "quantity", 2)),
+                "shippingAddress", Map.of("fullName", "Guest Buyer", "city", "Pune"));
+    }
+}
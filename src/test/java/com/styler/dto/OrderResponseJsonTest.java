@@ -0,0 +1,157 @@
+package com.styler.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.styler.model.Order;
+import com.styler.model.OrderItem;
+import com.styler.model.OrderStatus;
+import com.styler.model.ShippingAddress;
+import com.styler.service.OrderHistoryPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The record DTOs must serialize byte-for-byte like the {@code HashMap}s the order
+ * endpoints used to build; the maps below are copied from the old controller code.
+ */
+@JsonTest
+class OrderResponseJsonTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void orderSummaryMatchesMapOutput() throws Exception {
+        Order order = order();
+        assertThat(objectMapper.writeValueAsString(OrderSummary.from(order)))
+                .isEqualTo(objectMapper.writeValueAsString(summaryMap(order)));
+    }
+
+    @Test
+    void historyPageMatchesMapOutput() throws Exception {
+        OrderHistoryPage page = new OrderHistoryPage(List.of(order(), order()), "cursor-1");
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("orders", page.orders().stream().map(this::summaryMap).collect(Collectors.toList()));
+        response.put("nextCursor", page.nextCursor());
+        response.put("hasMore", page.hasMore());
+
+        assertThat(objectMapper.writeValueAsString(OrderHistoryPageResponse.from(page)))
+                .isEqualTo(objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    void orderDetailMatchesMapOutput() throws Exception {
+        Order order = order();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("orderId", order.getOrderId());
+        response.put("status", order.getStatus().toString());
+        response.put("totalAmount", order.getTotalAmount());
+        response.put("subtotal", order.getSubtotal());
+        response.put("shippingCost", order.getShippingCost());
+        response.put("taxAmount", order.getTaxAmount());
+        response.put("orderDate", order.getOrderDate());
+        response.put("estimatedDelivery", order.getEstimatedDelivery());
+        response.put("actualDelivery", order.getActualDelivery());
+        response.put("shippingAddress", order.getShippingAddress());
+        response.put("items", order.getItems().stream().map(item -> {
+            Map<String, Object> itemMap = new HashMap<>();
+            itemMap.put("productId", item.getProductId());
+            itemMap.put("productName", item.getProductName());
+            itemMap.put("productCategory", item.getProductCategory());
+            itemMap.put("price", item.getPrice());
+            itemMap.put("quantity", item.getQuantity());
+            itemMap.put("color", item.getColor());
+            itemMap.put("size", item.getSize());
+            itemMap.put("imageUrl", item.getImageUrl());
+            return itemMap;
+        }).collect(Collectors.toList()));
+
+        assertThat(objectMapper.writeValueAsString(OrderDetail.from(order)))
+                .isEqualTo(objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    void orderCreatedResponseMatchesMapOutput() throws Exception {
+        Order order = order();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", order.getId());
+        response.put("orderId", order.getOrderId());
+        response.put("totalAmount", order.getTotalAmount());
+        response.put("status", order.getStatus().toString());
+        response.put("createdAt", order.getOrderDate());
+        response.put("items", order.getItems().stream().map(item -> {
+            Map<String, Object> itemMap = new HashMap<>();
+            itemMap.put("productId", item.getProductId());
+            itemMap.put("productName", item.getProductName());
+            itemMap.put("quantity", item.getQuantity());
+            itemMap.put("price", item.getPrice());
+            return itemMap;
+        }).toArray());
+        response.put("shippingAddress", order.getShippingAddress());
+        response.put("success", true);
+        response.put("message", "Order created successfully");
+
+        assertThat(objectMapper.writeValueAsString(OrderCreatedResponse.from(order)))
+                .isEqualTo(objectMapper.writeValueAsString(response));
+    }
+
+    private Map<String, Object> summaryMap(Order order) {
+        Map<String, Object> orderMap = new HashMap<>();
+        orderMap.put("id", order.getId());
+        orderMap.put("orderId", order.getOrderId());
+        orderMap.put("status", order.getStatus().toString());
+        orderMap.put("totalAmount", order.getTotalAmount());
+        orderMap.put("createdAt", order.getOrderDate());
+        orderMap.put("estimatedDelivery", order.getEstimatedDelivery());
+        orderMap.put("shippingAddress", order.getShippingAddress());
+        orderMap.put("items", order.getItems().stream().map(item -> {
+            Map<String, Object> itemMap = new HashMap<>();
+            itemMap.put("productId", item.getProductId());
+            itemMap.put("productName", item.getProductName());
+            itemMap.put("quantity", item.getQuantity());
+            itemMap.put("price", item.getPrice());
+            itemMap.put("imageUrl", item.getImageUrl());
+            return itemMap;
+        }).collect(Collectors.toList()));
+        return orderMap;
+    }
+
+    private static Order order() {
+        Order order = new Order();
+        order.setId(42L);
+        order.setOrderId("ORD-01J0000000000");
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setSubtotal(new BigDecimal("59.97"));
+        order.setShippingCost(BigDecimal.ZERO);
+        order.setTaxAmount(new BigDecimal("10.79"));
+        order.setTotalAmount(new BigDecimal("70.76"));
+        order.setOrderDate(LocalDateTime.of(2024, 6, 1, 12, 0, 30));
+        order.setEstimatedDelivery(LocalDateTime.of(2024, 6, 6, 12, 0, 30));
+        ShippingAddress address = new ShippingAddress("Test", "User", "1 Test Road", "Pune", "MH", "411001");
+        address.setId(7L);
+        address.setLandmark("Near the station");
+        order.setShippingAddress(address);
+
+        OrderItem shirt = new OrderItem(order, 1L, "Linen Shirt", new BigDecimal("19.99"), 2);
+        shirt.setProductCategory("shirts");
+        shirt.setColor("white");
+        shirt.setSize("M");
+        shirt.setImageUrl("https://cdn.styler.example/products/1.jpg");
+        // Nulls must be written the same way too
+        OrderItem scarf = new OrderItem(order, 2L, "Scarf", new BigDecimal("19.99"), 1);
+        order.setItems(List.of(shirt, scarf));
+        return order;
+    }
+}
@@ -0,0 +1,59 @@
+package com.styler.repository;
+
+import com.styler.model.OutboxEvent;
+import com.styler.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("dev")
+@Import(StatementCounter.class)
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void failureIsRecordedOnlyWhileTheClaimedAttemptStillHolds() {
+        // Leased far ahead, so the running dispatcher leaves it alone
+        LocalDateTime lease = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MILLIS);
+        OutboxEvent event = new OutboxEvent("test.lease", "agg-1", "{}");
+        event.setAttempts(3);
+        event.setNextAttemptAt(lease);
+        Long id = outboxEventRepository.save(event).getId();
+        LocalDateTime retryAt = lease.plusHours(1);
+
+        // A dispatcher whose claim made attempt 2 lost it to the claim that made attempt 3
+        assertThat(recordFailure(id, 2, retryAt)).isZero();
+        OutboxEvent untouched = outboxEventRepository.findById(id).orElseThrow();
+        assertThat(untouched.getNextAttemptAt()).isEqualTo(lease);
+        assertThat(untouched.getLastError()).isNull();
+
+        assertThat(recordFailure(id, 3, retryAt)).isEqualTo(1);
+        OutboxEvent failed = outboxEventRepository.findById(id).orElseThrow();
+        assertThat(failed.getNextAttemptAt()).isEqualTo(retryAt);
+        assertThat(failed.getLastError()).isEqualTo("boom");
+
+        // Delivered and deleted elsewhere: the failure must not bring it back
+        outboxEventRepository.deleteById(id);
+        assertThat(recordFailure(id, 3, retryAt)).isZero();
+        assertThat(outboxEventRepository.existsById(id)).isFalse();
+    }
+
+    private int recordFailure(Long id, int attempts, LocalDateTime nextAttemptAt) {
+        return transactionTemplate.execute(status ->
+                outboxEventRepository.recordFailure(id, attempts, nextAttemptAt, "boom", null));
+    }
+}
@@ -0,0 +1,70 @@
+package com.styler.service;
+
+import com.styler.repository.ProductRepository;
+import com.styler.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("dev")
+@Import(StatementCounter.class)
+class CatalogImportServiceTest {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void importedProductsArePricedFromTheCatalog() {
+        int imported = catalogImportService.importProducts(List.of(
+                product(900_001L, "Linen Shirt", "24.499"),
+                product(900_002L, "Wool Coat", "120.00")));
+
+        assertThat(imported).isEqualTo(2);
+        assertThat(productCatalogService.find(900_001L)).hasValueSatisfying(product ->
+                assertThat(product.price()).isEqualByComparingTo("24.50"));
+
+        catalogImportService.importProducts(List.of(product(900_002L, "Wool Coat", "99.00")));
+
+        assertThat(productCatalogService.find(900_002L)).hasValueSatisfying(product ->
+                assertThat(product.price()).isEqualByComparingTo("99.00"));
+    }
+
+    @Test
+    void invalidProductsAreRejectedWithoutWritingAny() {
+        List<CatalogImportService.ProductImport> batch = List.of(
+                product(900_011L, "Linen Shirt", "24.50"),
+                product(900_012L, "Free Sample", "0.001"));
+
+        assertThatThrownBy(() -> catalogImportService.importProducts(batch))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Product 1: ");
+        assertThat(productRepository.existsById(900_011L)).isFalse();
+
+        assertThatThrownBy(() -> catalogImportService.importProducts(List.of(product(null, "Linen Shirt", "1.00"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> catalogImportService.importProducts(List.of(product(900_013L, " ", "1.00"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> catalogImportService.importProducts(List.of(product(900_014L, "Linen Shirt", "-5"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CatalogImportService.ProductImport product(Long id, String name, String price) {
+        return new CatalogImportService.ProductImport(id, name, "Shirts", new BigDecimal(price), null,
+                List.of("White"), List.of("M", "L"), null);
+    }
+}
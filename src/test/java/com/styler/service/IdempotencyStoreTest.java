@@ -0,0 +1,78 @@
+package com.styler.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void createStore() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new IdempotencyStore(meterRegistry, new ObjectMapper(), 100, 60, 1000);
+    }
+
+    @Test
+    void retryReplaysTheFirstResponseAndCountsAsAHit() {
+        AtomicInteger runs = new AtomicInteger();
+        Map<String, Object> body = Map.of("items", 1);
+
+        ResponseEntity<?> first = store.execute("scope", "key", body, () -> ResponseEntity.ok("order-" + runs.incrementAndGet()));
+        ResponseEntity<?> retry = store.execute("scope", "key", body, () -> ResponseEntity.ok("order-" + runs.incrementAndGet()));
+
+        assertThat(runs).hasValue(1);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(gets("miss")).isEqualTo(1);
+        assertThat(gets("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void keysAreSeparatePerScope() {
+        AtomicInteger runs = new AtomicInteger();
+
+        store.execute("user-1", "key", Map.of(), () -> ResponseEntity.ok(runs.incrementAndGet()));
+        store.execute("user-2", "key", Map.of(), () -> ResponseEntity.ok(runs.incrementAndGet()));
+
+        assertThat(runs).hasValue(2);
+        assertThat(gets("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void failedResponsesAreNotKept() {
+        AtomicInteger runs = new AtomicInteger();
+
+        store.execute("scope", "key", Map.of(), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        });
+        ResponseEntity<?> retry = store.execute("scope", "key", Map.of(), () -> ResponseEntity.ok(runs.incrementAndGet()));
+
+        assertThat(runs).hasValue(2);
+        assertThat(retry.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void reusingAKeyForADifferentBodyIsRejected() {
+        store.execute("scope", "key", Map.of("items", 1), () -> ResponseEntity.ok("order"));
+
+        assertThatThrownBy(() -> store.execute("scope", "key", Map.of("items", 2), () -> ResponseEntity.ok("other")))
+                .isInstanceOf(IdempotencyStore.KeyReusedException.class);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "idempotency").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,99 @@
+package com.styler.service;
+
+import com.styler.model.Order;
+import com.styler.model.OrderItem;
+import com.styler.model.OrderStatus;
+import com.styler.model.ShippingAddress;
+import com.styler.model.User;
+import com.styler.support.StatementCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("dev")
+@Import(StatementCounter.class)
+class OrderBulkStatusUpdateTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void bulkUpdateWaitsForAConcurrentSingleOrderUpdateBeforeComputingRollups() throws Exception {
+        User user = userService.createUser("bulk-" + UUID.randomUUID() + "@example.com", "password123");
+        Order order = orderService.createOrder(user, List.of(new OrderItem(null, 3L, null, null, 1)),
+                new ShippingAddress("Test", "User", "1 Test Road", "Pune", "MH", "411001"), "COD");
+        assertThat(userOrderCount(user)).isEqualTo(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch cancelled = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            // The single-order cancel has written its row but not committed yet
+            Future<?> cancel = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                orderService.updateOrderStatus(order.getOrderId(), "CANCELLED");
+                entityManager.flush();
+                cancelled.countDown();
+                await(release);
+            }));
+            assertThat(cancelled.await(10, TimeUnit.SECONDS)).isTrue();
+
+            Future<List<OrderStatusUpdateResult>> bulk = executor.submit(
+                    () -> orderService.updateOrderStatuses(List.of(order.getOrderId()), OrderStatus.SHIPPED));
+            Thread.sleep(300);
+            release.countDown();
+            cancel.get(10, TimeUnit.SECONDS);
+
+            OrderStatusUpdateResult result = bulk.get(10, TimeUnit.SECONDS).get(0);
+            assertThat(result.outcome()).isEqualTo(OrderStatusUpdateResult.Outcome.UPDATED);
+            assertThat(result.previousStatus()).isEqualTo(OrderStatus.CANCELLED);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Cancelled (-1) then shipped (+1): the order counts once, as before
+        assertThat(orderService.findByOrderId(order.getOrderId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(userOrderCount(user)).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long userOrderCount(User user) {
+        return jdbcTemplate.queryForObject(
+                "SELECT order_count FROM user_order_rollups WHERE user_id = ?", Long.class, user.getId());
+    }
+}
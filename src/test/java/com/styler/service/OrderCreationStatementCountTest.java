@@ -0,0 +1,74 @@
+package com.styler.service;
+
+import com.styler.model.Order;
+import com.styler.model.OrderItem;
+import com.styler.model.ShippingAddress;
+import com.styler.model.User;
+import com.styler.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("dev")
+@Import(StatementCounter.class)
+class OrderCreationStatementCountTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void statementCountDoesNotGrowWithItemCount() {
+        User user = userService.createUser("creation-" + UUID.randomUUID() + "@example.com", "password123");
+        // The first order also sets up the user's rollup row
+        placeOrder(user, 1);
+
+        int single = StatementCounter.count(() -> placeOrder(user, 1));
+        int twenty = StatementCounter.count(() -> placeOrder(user, 20));
+        int forty = StatementCounter.count(() -> placeOrder(user, 40));
+
+        assertThat(single).isPositive();
+        // Items are written in JDBC batches; allow one extra round trip for a new id block
+        assertThat(twenty).isLessThanOrEqualTo(single + 1);
+        assertThat(forty).isLessThanOrEqualTo(single + 1);
+    }
+
+    @Test
+    void batchedItemsAreAllPersisted() {
+        User user = userService.createUser("creation-" + UUID.randomUUID() + "@example.com", "password123");
+
+        AtomicReference<Order> order = new AtomicReference<>();
+        placeOrder(user, 40, order);
+
+        List<Order> history = orderService.getUserOrderHistory(user);
+        assertThat(history).singleElement().satisfies(saved -> {
+            assertThat(saved.getOrderId()).isEqualTo(order.get().getOrderId());
+            assertThat(saved.getItems()).hasSize(40);
+        });
+    }
+
+    private void placeOrder(User user, int items) {
+        placeOrder(user, items, new AtomicReference<>());
+    }
+
+    private void placeOrder(User user, int items, AtomicReference<Order> placed) {
+        List<OrderItem> lines = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            lines.add(new OrderItem(null, (long) (i % 50) + 1, null, null, 1));
+        }
+        placed.set(orderService.createOrder(user, lines,
+                new ShippingAddress("Test", "User", "1 Test Road", "Pune", "MH", "411001"), "COD"));
+    }
+}
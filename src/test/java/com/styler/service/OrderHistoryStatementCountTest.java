@@ -0,0 +1,78 @@
+package com.styler.service;
+
+import com.styler.model.Order;
+import com.styler.model.OrderItem;
+import com.styler.model.ShippingAddress;
+import com.styler.model.User;
+import com.styler.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("dev")
+@Import(StatementCounter.class)
+class OrderHistoryStatementCountTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void historyLoadsOrdersItemsAndAddressesInOneStatement() {
+        User few = userWithOrders(1, 3);
+        User many = userWithOrders(25, 3);
+
+        AtomicReference<List<Order>> history = new AtomicReference<>();
+        int fewStatements = StatementCounter.count(() -> history.set(orderService.getUserOrderHistory(few)));
+        int manyStatements = StatementCounter.count(() -> history.set(orderService.getUserOrderHistory(many)));
+
+        assertThat(fewStatements).isEqualTo(1);
+        assertThat(manyStatements).isEqualTo(1);
+
+        // Everything the endpoint serializes is already loaded, so reading it costs nothing
+        int readStatements = StatementCounter.count(() -> history.get().forEach(order -> {
+            assertThat(order.getItems()).hasSize(3);
+            assertThat(order.getShippingAddress().getCity()).isNotNull();
+        }));
+        assertThat(history.get()).hasSize(25);
+        assertThat(readStatements).isZero();
+    }
+
+    @Test
+    void historyPageTakesTwoStatementsWhateverTheHistoryLength() {
+        User many = userWithOrders(30, 2);
+
+        AtomicReference<OrderHistoryPage> page = new AtomicReference<>();
+        int firstPage = StatementCounter.count(() -> page.set(orderService.getUserOrderPage(many, null, 20)));
+        int secondPage = StatementCounter.count(() -> page.set(orderService.getUserOrderPage(many, page.get().nextCursor(), 20)));
+
+        assertThat(firstPage).isEqualTo(2);
+        assertThat(secondPage).isEqualTo(2);
+        assertThat(page.get().orders()).hasSize(10);
+        assertThat(page.get().hasMore()).isFalse();
+    }
+
+    private User userWithOrders(int orders, int itemsPerOrder) {
+        User user = userService.createUser("history-" + UUID.randomUUID() + "@example.com", "password123");
+        for (int i = 0; i < orders; i++) {
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < itemsPerOrder; j++) {
+                items.add(new OrderItem(null, (long) j + 1, null, null, 1));
+            }
+            orderService.createOrder(user, items, new ShippingAddress("Test", "User", "1 Test Road", "Pune", "MH", "411001"), "COD");
+        }
+        return user;
+    }
+}
@@ -0,0 +1,84 @@
+package com.styler.service;
+
+import com.styler.model.OrderStatus;
+import com.styler.repository.OrderDailyRollupRepository;
+import com.styler.repository.OrderStatusRow;
+import com.styler.repository.UserOrderRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderRollupServiceLockOrderTest {
+
+    private final OrderDailyRollupRepository dailyRollupRepository = mock(OrderDailyRollupRepository.class);
+    private final UserOrderRollupRepository userRollupRepository = mock(UserOrderRollupRepository.class);
+    private final OrderRollupService service = new OrderRollupService();
+
+    OrderRollupServiceLockOrderTest() {
+        ReflectionTestUtils.setField(service, "dailyRollupRepository", dailyRollupRepository);
+        ReflectionTestUtils.setField(service, "userRollupRepository", userRollupRepository);
+        when(dailyRollupRepository.increment(any(), anyLong(), any())).thenReturn(1);
+        when(userRollupRepository.increment(any(), anyLong(), any())).thenReturn(1);
+    }
+
+    @Test
+    void bulkChangesUpdateBucketsInAscendingKeyOrder() {
+        LocalDate start = LocalDate.of(2026, 3, 1);
+        List<OrderStatusRow> rows = new ArrayList<>();
+        // Keys that a HashMap would iterate out of order
+        long[] userIds = {1_000_003L, 17L, 65_536L, 2L, 999L};
+        int[] days = {20, 3, 11, 1, 27};
+        for (int i = 0; i < userIds.length; i++) {
+            rows.add(new OrderStatusRow((long) i, "ORD-" + i, OrderStatus.CONFIRMED, userIds[i],
+                    start.plusDays(days[i]).atTime(12, 0), new BigDecimal("10.00")));
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.recordStatusChanges(rows, OrderStatus.CANCELLED);
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(0));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        InOrder userOrder = inOrder(userRollupRepository);
+        for (long userId : new long[]{2L, 17L, 999L, 65_536L, 1_000_003L}) {
+            userOrder.verify(userRollupRepository).increment(eq(userId), eq(-1L), any());
+        }
+        InOrder dayOrder = inOrder(dailyRollupRepository);
+        for (int day : new int[]{1, 3, 11, 20, 27}) {
+            dayOrder.verify(dailyRollupRepository).increment(eq(start.plusDays(day)), eq(-1L), any());
+        }
+    }
+
+    @Test
+    void directChangesOutsideATransactionAreAppliedInOrderToo() {
+        LocalDateTime noon = LocalDate.of(2026, 3, 1).atTime(12, 0);
+        List<OrderStatusRow> rows = List.of(
+                new OrderStatusRow(1L, "ORD-1", OrderStatus.CANCELLED, 70_000L, noon.plusDays(9), BigDecimal.ONE),
+                new OrderStatusRow(2L, "ORD-2", OrderStatus.CANCELLED, 3L, noon.plusDays(2), BigDecimal.ONE));
+
+        service.recordStatusChanges(rows, OrderStatus.CONFIRMED);
+
+        InOrder order = inOrder(dailyRollupRepository, userRollupRepository);
+        order.verify(dailyRollupRepository).increment(eq(noon.plusDays(2).toLocalDate()), eq(1L), any());
+        order.verify(dailyRollupRepository).increment(eq(noon.plusDays(9).toLocalDate()), eq(1L), any());
+        order.verify(userRollupRepository).increment(eq(3L), eq(1L), any());
+        order.verify(userRollupRepository).increment(eq(70_000L), eq(1L), any());
+    }
+}
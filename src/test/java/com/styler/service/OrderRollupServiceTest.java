@@ -0,0 +1,133 @@
+package com.styler.service;
+
+import com.styler.model.Order;
+import com.styler.model.OrderItem;
+import com.styler.model.ShippingAddress;
+import com.styler.model.User;
+import com.styler.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("dev")
+@Import(StatementCounter.class)
+class OrderRollupServiceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void firstOrderOfANewUserTakesOneConnection() {
+        User user = newUser();
+
+        List<Order> placed = new ArrayList<>();
+        int connections = StatementCounter.connections(() -> placed.add(placeOrder(user)));
+
+        assertThat(connections).isEqualTo(1);
+        assertThat(userOrderCount(user)).isEqualTo(1);
+        assertThat(orderRollupService.getLifetimeValue(user)).isEqualByComparingTo(placed.get(0).getTotalAmount());
+    }
+
+    @Test
+    void concurrentOrdersCreateAMissingDayBucketOnce() throws Exception {
+        int threads = 8;
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            users.add(newUser());
+        }
+        jdbcTemplate.update("DELETE FROM order_daily_rollups WHERE rollup_date = ?", LocalDate.now());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Order>> futures = new ArrayList<>();
+            for (User user : users) {
+                Callable<Order> task = () -> {
+                    start.await();
+                    return placeOrder(user);
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Order> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(dayOrderCount()).isEqualTo(threads);
+        for (User user : users) {
+            assertThat(userOrderCount(user)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void dayIncrementsAreSummedPerTransactionAndDroppedOnRollback() {
+        User user = newUser();
+        placeOrder(user);
+        long before = dayOrderCount();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            placeOrder(user);
+            placeOrder(user);
+        });
+        assertThat(dayOrderCount()).isEqualTo(before + 2);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            placeOrder(user);
+            status.setRollbackOnly();
+        });
+        assertThat(dayOrderCount()).isEqualTo(before + 2);
+        assertThat(userOrderCount(user)).isEqualTo(3);
+    }
+
+    private User newUser() {
+        return userService.createUser("rollup-" + UUID.randomUUID() + "@example.com", "password123");
+    }
+
+    private Order placeOrder(User user) {
+        return orderService.createOrder(user, List.of(new OrderItem(null, 3L, null, null, 2)),
+                new ShippingAddress("Test", "User", "1 Test Road", "Pune", "MH", "411001"), "COD");
+    }
+
+    private long dayOrderCount() {
+        List<Long> counts = jdbcTemplate.queryForList(
+                "SELECT order_count FROM order_daily_rollups WHERE rollup_date = ?", Long.class, LocalDate.now());
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    private long userOrderCount(User user) {
+        return jdbcTemplate.queryForObject(
+                "SELECT order_count FROM user_order_rollups WHERE user_id = ?", Long.class, user.getId());
+    }
+}
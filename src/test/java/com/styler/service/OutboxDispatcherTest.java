@@ -0,0 +1,66 @@
+package com.styler.service;
+
+import com.styler.model.OutboxEvent;
+import com.styler.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final OutboxDispatcher dispatcher = new OutboxDispatcher(mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+    OutboxDispatcherTest() {
+        ReflectionTestUtils.setField(dispatcher, "outboxEventRepository", repository);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "leaseMillis", 60_000L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 10);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitialMillis", 1000L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMillis", 300_000L);
+        ReflectionTestUtils.setField(dispatcher, "handlers", List.of(new OutboxEventHandler() {
+            @Override
+            public boolean handles(String eventType) {
+                return true;
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                throw new IllegalStateException("handler down");
+            }
+        }));
+    }
+
+    @Test
+    void failureIsWrittenOnlyUnderTheClaimThatMadeTheAttempt() {
+        OutboxEvent event = new OutboxEvent("test.event", "agg-1", "{}");
+        event.setId(7L);
+        event.setAttempts(2);
+        when(repository.findDueForUpdate(any(), any())).thenReturn(List.of(event));
+        // Another dispatcher re-claimed the row, or delivered and deleted it, while the handler ran
+        when(repository.recordFailure(anyLong(), anyInt(), any(), any(), any())).thenReturn(0);
+
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(1);
+
+        verify(repository).recordFailure(eq(7L), eq(3), any(LocalDateTime.class),
+                eq("java.lang.IllegalStateException: handler down"), isNull());
+        verify(repository, never()).saveAll(anyIterable());
+        verify(repository, never()).save(any());
+    }
+}
@@ -0,0 +1,94 @@
+package com.styler.service;
+
+import com.styler.model.Product;
+import com.styler.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PricingServiceTest {
+
+    private record Line(Long productId, int quantity, String name, BigDecimal price) {}
+
+    private final List<Product> products = new ArrayList<>();
+    private final ProductCatalogService catalog;
+
+    PricingServiceTest() {
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.findAll()).thenAnswer(invocation -> List.copyOf(products));
+        catalog = new ProductCatalogService(repository, new SimpleMeterRegistry(), 5000, 24, 100);
+    }
+
+    @Test
+    void emptyCatalogUsesClientPricesWhenFallbackIsOn() {
+        catalog.load();
+
+        PriceQuote quote = quote(pricing(true), new Line(7L, 2, "Linen Shirt", new BigDecimal("19.99")));
+
+        assertThat(quote.lines().get(0).productName()).isEqualTo("Linen Shirt");
+        assertThat(quote.subtotal()).isEqualByComparingTo("39.98");
+    }
+
+    @Test
+    void loadedCatalogTakesOverFromClientPrices() {
+        PricingService pricing = pricing(true);
+        catalog.load();
+        assertThat(pricing.usesClientPrices()).isTrue();
+
+        products.add(product(7L, "Linen Shirt", "24.50"));
+        catalog.load();
+
+        assertThat(pricing.usesClientPrices()).isFalse();
+        assertThat(quote(pricing, new Line(7L, 1, "Linen Shirt", new BigDecimal("0.01"))).subtotal())
+                .isEqualByComparingTo("24.50");
+        assertThatThrownBy(() -> quote(pricing, new Line(8L, 1, "Wool Coat", new BigDecimal("5.00"))))
+                .isInstanceOf(PricingService.UnknownProductException.class);
+    }
+
+    @Test
+    void emptyCatalogRejectsOrdersWhenFallbackIsOff() {
+        catalog.load();
+
+        assertThatThrownBy(() -> quote(pricing(false), new Line(7L, 1, "Linen Shirt", new BigDecimal("19.99"))))
+                .isInstanceOf(PricingService.UnknownProductException.class);
+    }
+
+    @Test
+    void clientLineWithoutUsablePriceIsUnknown() {
+        catalog.load();
+        PricingService pricing = pricing(true);
+
+        assertThatThrownBy(() -> quote(pricing, new Line(7L, 1, "Linen Shirt", null)))
+                .isInstanceOf(PricingService.UnknownProductException.class);
+        assertThatThrownBy(() -> quote(pricing, new Line(7L, 1, "Linen Shirt", new BigDecimal("-1"))))
+                .isInstanceOf(PricingService.UnknownProductException.class);
+        assertThatThrownBy(() -> quote(pricing, new Line(7L, 1, "Linen Shirt", new BigDecimal("0.00"))))
+                .isInstanceOf(PricingService.UnknownProductException.class);
+        assertThatThrownBy(() -> quote(pricing, new Line(7L, 1, " ", new BigDecimal("1.00"))))
+                .isInstanceOf(PricingService.UnknownProductException.class);
+    }
+
+    private PricingService pricing(boolean clientPriceFallback) {
+        return new PricingService(catalog, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, clientPriceFallback);
+    }
+
+    private static PriceQuote quote(PricingService pricing, Line line) {
+        return pricing.quote(List.of(line), Line::productId, Line::quantity,
+                l -> PricingService.clientProduct(l.productId(), l.name(), null, null, l.price()));
+    }
+
+    private static Product product(Long id, String name, String price) {
+        Product product = new Product(id, name, "Shirts", new BigDecimal(price));
+        product.setUpdatedAt(LocalDateTime.now());
+        return product;
+    }
+}
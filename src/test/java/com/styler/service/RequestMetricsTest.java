@@ -0,0 +1,45 @@
+package com.styler.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestMetricsTest {
+
+    @Test
+    void slowRequestSamplesKeepRouteAndSqlWithoutValues() {
+        RequestMetrics metrics = new RequestMetrics(new SimpleMeterRegistry(), 0, 10, 50);
+
+        metrics.begin();
+        metrics.onStatement("select u1_0.id from users u1_0 where u1_0.email='jane.doe@example.com' and u1_0.id=42");
+        metrics.end("GET", "/api/users/{email}", 200, 1_000_000);
+
+        RequestMetrics.SlowRequest sample = metrics.getSlowRequests().get(0);
+        assertThat(sample.route()).isEqualTo("/api/users/{email}");
+        assertThat(sample.sql()).containsExactly("select u1_0.id from users u1_0 where u1_0.email=? and u1_0.id=?");
+        assertThat(sample.toString()).doesNotContain("jane.doe");
+    }
+
+    @Test
+    void literalsAreReplacedButIdentifiersAndPlaceholdersAreNot() {
+        assertThat(RequestMetrics.withoutLiterals("update orders set status='it''s' where version is null and id in (1, -2, 3.5)"))
+                .isEqualTo("update orders set status=? where version is null and id in (?, ?, ?)");
+        assertThat(RequestMetrics.withoutLiterals("select o1_0.id from orders o1_0 where o1_0.user_id=? fetch first ? rows only"))
+                .isEqualTo("select o1_0.id from orders o1_0 where o1_0.user_id=? fetch first ? rows only");
+        assertThat(RequestMetrics.withoutLiterals("select nextval('users_seq')")).isEqualTo("select nextval(?)");
+    }
+
+    @Test
+    void fastRequestsAreNotSampled() {
+        RequestMetrics metrics = new RequestMetrics(new SimpleMeterRegistry(), 500, 10, 50);
+
+        metrics.begin();
+        metrics.end("GET", "/api/products/{id}", 200, 1_000_000);
+
+        assertThat(metrics.getSlowRequests()).isEqualTo(List.of());
+        assertThat(metrics.getSlowRequestCount()).isZero();
+    }
+}
@@ -0,0 +1,100 @@
+package com.styler.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedOrderIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    // Far more than the 4096 ids a millisecond holds, so the sequence overflows into later milliseconds
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        TimeOrderedOrderIdGenerator generator = new TimeOrderedOrderIdGenerator(7);
+
+        List<List<String>> generated = generateConcurrently(generator);
+
+        Set<String> unique = new HashSet<>();
+        for (List<String> ids : generated) {
+            for (int i = 0; i < ids.size(); i++) {
+                String id = ids.get(i);
+                assertThat(id).matches("ORD-[0-9A-HJKMNP-TV-Z]{13}");
+                if (i > 0) {
+                    assertThat(id).isGreaterThan(ids.get(i - 1));
+                }
+                unique.add(id);
+            }
+        }
+        assertThat(unique).hasSize(THREADS * IDS_PER_THREAD);
+    }
+
+    @Test
+    void nodesNeverIssueTheSameId() throws Exception {
+        TimeOrderedOrderIdGenerator first = new TimeOrderedOrderIdGenerator(1);
+        TimeOrderedOrderIdGenerator second = new TimeOrderedOrderIdGenerator(2);
+
+        Set<String> unique = new HashSet<>();
+        for (List<String> ids : generateConcurrently(first)) {
+            unique.addAll(ids);
+        }
+        for (List<String> ids : generateConcurrently(second)) {
+            unique.addAll(ids);
+        }
+        assertThat(unique).hasSize(2 * THREADS * IDS_PER_THREAD);
+    }
+
+    @Test
+    void encodingSortsInNumericOrder() {
+        long[] values = {0, 1, 31, 32, 1023, 1024, Long.MAX_VALUE >>> 1, Long.MAX_VALUE};
+        for (int i = 1; i < values.length; i++) {
+            assertThat(TimeOrderedOrderIdGenerator.encode(values[i]))
+                    .isGreaterThan(TimeOrderedOrderIdGenerator.encode(values[i - 1]));
+        }
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new TimeOrderedOrderIdGenerator(1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<List<String>> generateConcurrently(TimeOrderedOrderIdGenerator generator) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<List<String>> task = () -> {
+                    start.await();
+                    List<String> ids = new ArrayList<>(IDS_PER_THREAD);
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids.add(generator.nextOrderId());
+                    }
+                    return ids;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            List<List<String>> results = new ArrayList<>();
+            for (Future<List<String>> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
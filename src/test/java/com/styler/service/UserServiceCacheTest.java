@@ -0,0 +1,96 @@
+package com.styler.service;
+
+import com.styler.model.User;
+import com.styler.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Password changes made behind the cache's back, as by another instance, only reach this
+ * instance's cache when its entries expire.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("dev")
+@Import(StatementCounter.class)
+class UserServiceCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void passwordChangedElsewhereTakesEffectDespiteTheCache() {
+        String email = newUser();
+        assertThat(userService.findByEmail(email)).isPresent();
+
+        changePasswordElsewhere(email, "changed456");
+
+        assertThat(userService.authenticateUser(email, "password123")).isEmpty();
+        assertThat(userService.authenticateUser(email, "changed456")).isPresent();
+    }
+
+    @Test
+    void cachedUsersAreNotSharedBetweenCallers() {
+        String email = newUser();
+        User first = userService.findByEmail(email).orElseThrow();
+        first.setFirstName("Changed");
+
+        User second = userService.findByEmail(email).orElseThrow();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getFirstName()).isNull();
+        assertThat(userService.findById(second.getId()).orElseThrow()).isNotSameAs(second);
+    }
+
+    @Test
+    void loginDoesNotChangeCachedUsers() {
+        String email = newUser();
+        User cached = userService.findByEmail(email).orElseThrow();
+
+        User loggedIn = userService.authenticateUser(email, "password123").orElseThrow();
+
+        assertThat(loggedIn.getLastLogin()).isNotNull();
+        assertThat(cached.getLastLogin()).isNull();
+        assertThat(userService.findByEmail(email).orElseThrow().getLastLogin()).isNull();
+    }
+
+    @Test
+    void profileUpdateKeepsAPasswordChangedElsewhere() {
+        String email = newUser();
+        assertThat(userService.findByEmail(email)).isPresent();
+        changePasswordElsewhere(email, "changed456");
+
+        User updated = userService.updateUser(email, user -> user.setFirstName("Asha")).orElseThrow();
+
+        assertThat(updated.getFirstName()).isEqualTo("Asha");
+        assertThat(userService.findByEmail(email).orElseThrow().getFirstName()).isEqualTo("Asha");
+        assertThat(userService.authenticateUser(email, "changed456")).isPresent();
+    }
+
+    @Test
+    void profileUpdateOfUnknownUserIsEmpty() {
+        assertThat(userService.updateUser("missing-" + UUID.randomUUID() + "@example.com", user -> user.setPhone("1"))).isEmpty();
+    }
+
+    private String newUser() {
+        String email = "cache-" + UUID.randomUUID() + "@example.com";
+        userService.createUser(email, "password123");
+        return email;
+    }
+
+    private void changePasswordElsewhere(String email, String password) {
+        jdbcTemplate.update("UPDATE users SET password = ? WHERE email = ?", passwordHashingService.hash(password), email);
+    }
+}
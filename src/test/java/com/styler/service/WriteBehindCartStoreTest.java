@@ -0,0 +1,121 @@
+package com.styler.service;
+
+import com.styler.model.CartItem;
+import com.styler.model.User;
+import com.styler.repository.CartItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WriteBehindCartStoreTest {
+
+    private final CartWriter cartWriter = mock(CartWriter.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final WriteBehindCartStore store = new WriteBehindCartStore();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "cartItemRepository", mock(CartItemRepository.class));
+        ReflectionTestUtils.setField(store, "cartWriter", cartWriter);
+        ReflectionTestUtils.setField(store, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(store, "taskScheduler", taskScheduler);
+        ReflectionTestUtils.setField(store, "maxCarts", 10);
+        ReflectionTestUtils.setField(store, "maxDirtyCarts", 100);
+        ReflectionTestUtils.setField(store, "flushBatchSize", 100);
+        writerSucceeds();
+    }
+
+    @Test
+    void flushOfUserThrowsWhenPendingCartCannotBeWritten() {
+        User user = user(1L);
+        store.put(user, List.of(item(3L)));
+        when(cartWriter.writeCarts(anyMap())).thenThrow(new IllegalStateException("database down"));
+        when(cartWriter.writeCart(any(), anyList())).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(() -> store.flush(user)).isInstanceOf(WriteBehindCartStore.CartFlushException.class);
+        assertThat(store.getDirtyCartCount()).isEqualTo(1);
+
+        reset(cartWriter);
+        writerSucceeds();
+        store.flush(user);
+        assertThat(store.getDirtyCartCount()).isZero();
+    }
+
+    @Test
+    void savesOverTheDirtyLimitScheduleOneFlushInsteadOfFlushingInline() {
+        ReflectionTestUtils.setField(store, "maxDirtyCarts", 1);
+
+        for (long id = 1; id <= 4; id++) {
+            store.put(user(id), List.of(item(id)));
+        }
+
+        verifyNoInteractions(cartWriter);
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, times(1)).schedule(flush.capture(), any(Instant.class));
+
+        flush.getValue().run();
+        assertThat(store.getDirtyCartCount()).isZero();
+
+        // Once the queued flush has run, the next save over the limit queues another
+        store.put(user(5L), List.of(item(5L)));
+        store.put(user(6L), List.of(item(6L)));
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void fullStoreEvictsLeastRecentlyUsedCleanCarts() throws InterruptedException {
+        for (long id = 0; id < 10; id++) {
+            store.put(user(id), List.of(item(id)));
+            Thread.sleep(1);
+        }
+        store.flushAll();
+        store.get(user(0L));
+
+        store.put(user(10L), List.of(item(10L)));
+
+        // One over the limit, plus a tenth of it so the next new cart doesn't rescan
+        assertThat(store.currentTag(user(1L))).isNull();
+        assertThat(store.currentTag(user(2L))).isNull();
+        assertThat(store.currentTag(user(0L))).isNotNull();
+        assertThat(store.currentTag(user(3L))).isNotNull();
+        assertThat(store.currentTag(user(10L))).isNotNull();
+    }
+
+    private void writerSucceeds() {
+        when(cartWriter.writeCarts(anyMap())).thenAnswer(invocation -> Map.copyOf(invocation.getArgument(0)));
+        when(cartWriter.writeCart(any(), anyList())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    private static User user(Long id) {
+        User user = new User("cart-" + id + "@example.com", "password");
+        user.setId(id);
+        return user;
+    }
+
+    private static CartItem item(Long productId) {
+        CartItem item = new CartItem();
+        item.setProductId(productId);
+        item.setProductName("Product " + productId);
+        item.setQuantity(1);
+        return item;
+    }
+}
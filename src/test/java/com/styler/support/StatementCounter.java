@@ -0,0 +1,75 @@
+package com.styler.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.Set;
+
+/**
+ * Counts the JDBC statements prepared, and connections taken, on the calling thread, so
+ * tests can assert round trips while scheduled jobs run queries of their own. Wraps the
+ * application's data source in a proxy that counts {@code getConnection} and
+ * {@code prepareStatement}, {@code prepareCall} and {@code createStatement} on its
+ * connections, and otherwise delegates.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class StatementCounter {
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "prepareCall", "createStatement");
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    private static final ThreadLocal<int[]> CONNECTIONS = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} and returns the number of statements it prepared on this thread.
+     */
+    public static int count(Runnable action) {
+        int before = COUNT.get()[0];
+        action.run();
+        return COUNT.get()[0] - before;
+    }
+
+    /**
+     * Runs {@code action} and returns the number of connections it took on this thread.
+     */
+    public static int connections(Runnable action) {
+        int before = CONNECTIONS.get()[0];
+        action.run();
+        return CONNECTIONS.get()[0] - before;
+    }
+
+    private static <T> T proxy(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (STATEMENT_METHODS.contains(method.getName())) {
+                COUNT.get()[0]++;
+            } else if (method.getName().equals("getConnection")) {
+                CONNECTIONS.get()[0]++;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return result instanceof Connection connection && method.getName().equals("getConnection")
+                    ? proxy(Connection.class, connection)
+                    : result;
+        };
+        return type.cast(Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}